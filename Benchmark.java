@@ -0,0 +1,291 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Benchmark.java */
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+
+/*
+    Microbenchmarks for Rank, BatchEvaluator, Deck, SidePots and the Game
+    loop.
+
+    Every benchmark is warmed up and then measured over a few timed
+    iterations on the current thread. Each result row reports throughput
+    and allocation: bytes per operation (read from the thread's allocation
+    counter, like JMH's gc.alloc.rate.norm) and the resulting MB/s.
+
+    "allocation" instead checks that a warmed up game loop allocates
+    nothing, and exits with status 1 if it does.
+
+    This is a hand-rolled harness, not JMH: there is no build module, all
+    benchmarks run in the one JVM that runs the others (no forks, so
+    profile pollution between benchmarks is possible), results only reach
+    a volatile sink (no Blackhole), and allocation comes from the thread's
+    counter rather than JMH's GC profiler. Use it to compare runs on the
+    same machine, not as a rigorous baseline.
+
+    Usage: java [--add-modules jdk.incubator.vector] Benchmark [rank|batch|deck|pots|game|all|allocation]
+*/
+
+public final class Benchmark {
+
+  private static final int WARMUP_ITERATIONS      = 3;
+  private static final int MEASUREMENT_ITERATIONS = 5;
+  private static final long ITERATION_NANOS       = 1000000000L;
+
+  private static final int SETS_PER_DEGREE = 256;
+  private static final int BATCH_SIZE      = 1024;
+  private static final int ALL_IN_SPOTS    = 1024;
+
+  private static final int ALLOCATION_WARMUP_GAMES = 200000;
+  private static final int ALLOCATION_GAMES        = 100000;
+
+  /* Sink for results so the JIT cannot drop the work being measured. */
+  private static volatile long sink;
+
+  private static final com.sun.management.ThreadMXBean threads =
+    (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+  public interface Operation {
+    /* Run one operation and return something derived from its result. */
+    long run(int n);
+  }
+
+  private Benchmark() {
+  }
+
+  public static void main(String[] args) {
+    String which = (args.length > 0) ? args[0] : "all";
+
+    if (which.equals("allocation")) {
+      if (!checkGameAllocation()) {
+        System.exit(1);
+      }
+      return;
+    }
+
+    System.out.printf("%-28s %14s %12s %12s %10s%n", "Benchmark", "ops/s", "ns/op", "B/op", "MB/s");
+    if (which.equals("rank") || which.equals("all")) {
+      benchmarkRank();
+    }
+    if (which.equals("batch") || which.equals("all")) {
+      benchmarkBatch();
+    }
+    if (which.equals("deck") || which.equals("all")) {
+      benchmarkDeck();
+    }
+    if (which.equals("pots") || which.equals("all")) {
+      benchmarkSidePots();
+    }
+    if (which.equals("game") || which.equals("all")) {
+      benchmarkGame();
+    }
+  }
+
+  /* new Rank(communityCards, hand) on random 7-card sets of each degree. */
+  private static void benchmarkRank() {
+    final ArrayList<ArrayList<ArrayList<Card>>> communityCards = new ArrayList<>();
+    final ArrayList<ArrayList<ArrayList<Card>>> hands = new ArrayList<>();
+    for (int degree = 0; degree <= 9; degree++) {
+      communityCards.add(new ArrayList<ArrayList<Card>>());
+      hands.add(new ArrayList<ArrayList<Card>>());
+    }
+
+    /* Sample hands until every degree has enough of them. */
+    Deck deck = new Deck(new Random(1));
+    int degreesFilled = 0;
+    while (degreesFilled < 10) {
+      deck.initializeDeck();
+      deck.shuffle();
+      ArrayList<Card> community = new ArrayList<>();
+      ArrayList<Card> hand = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        community.add(deck.drawCard());
+      }
+      hand.add(deck.drawCard());
+      hand.add(deck.drawCard());
+      int degree = new Rank(community, hand).getDegree();
+      if (hands.get(degree).size() < SETS_PER_DEGREE) {
+        communityCards.get(degree).add(community);
+        hands.get(degree).add(hand);
+        if (hands.get(degree).size() == SETS_PER_DEGREE) {
+          degreesFilled++;
+        }
+      }
+    }
+
+    for (int degree = 0; degree <= 9; degree++) {
+      final ArrayList<ArrayList<Card>> community = communityCards.get(degree);
+      final ArrayList<ArrayList<Card>> hand = hands.get(degree);
+      Rank rank = new Rank(community.get(0), hand.get(0));
+      measure("Rank " + rank.getDegreeString(), new Operation() {
+        @Override
+        public long run(int n) {
+          int i = n & (SETS_PER_DEGREE - 1);
+          return new Rank(community.get(i), hand.get(i)).getStrength();
+        }
+      });
+    }
+  }
+
+  /* BATCH_SIZE random 7-card hands scored one at a time with
+     HandEvaluator and with one BatchEvaluator call. */
+  private static void benchmarkBatch() {
+    final long[] hands = new long[BATCH_SIZE];
+    final int[] cards = new int[7 * BATCH_SIZE];
+    final int[] strengths = new int[BATCH_SIZE];
+    Deck deck = new Deck(new Random(1));
+    for (int h = 0; h < BATCH_SIZE; h++) {
+      deck.initializeDeck();
+      deck.shuffle();
+      for (int i = 0; i < 7; i++) {
+        Card card = deck.drawCard();
+        hands[h] |= card.getMask();
+        cards[i * BATCH_SIZE + h] = card.getIndex();
+      }
+    }
+
+    measure("Evaluate " + BATCH_SIZE + " hands", new Operation() {
+      @Override
+      public long run(int n) {
+        long sum = 0;
+        for (int h = 0; h < BATCH_SIZE; h++) {
+          sum += HandEvaluator.evaluate(hands[h]);
+        }
+        return sum;
+      }
+    });
+    measure("Batch " + BATCH_SIZE + " hands (" + (BatchEvaluator.isVectorized() ? "vector" : "scalar") + ")",
+      new Operation() {
+        @Override
+        public long run(int n) {
+          BatchEvaluator.evaluate(cards, 7, BATCH_SIZE, strengths);
+          return strengths[n & (BATCH_SIZE - 1)];
+        }
+      });
+  }
+
+  /* initializeDeck(), shuffle() and the draws of an 8 player game. */
+  private static void benchmarkDeck() {
+    final Deck deck = new Deck(new GameRandom(1));
+    final int cardsPerGame = 2 * Game.MAX_PLAYERS + 8;
+    measure("Deck deal " + cardsPerGame + " cards", new Operation() {
+      @Override
+      public long run(int n) {
+        long cards = 0;
+        deck.initializeDeck();
+        deck.shuffle();
+        for (int i = 0; i < cardsPerGame; i++) {
+          cards |= deck.drawCard().getMask();
+        }
+        return cards;
+      }
+    });
+  }
+
+  /* SidePots.resolve() on 8-way all-ins of random stacks and hands, with
+     a few folds and ties. */
+  private static void benchmarkSidePots() {
+    final long[][] contributions = new long[ALL_IN_SPOTS][Game.MAX_PLAYERS];
+    final int[][] strengths = new int[ALL_IN_SPOTS][Game.MAX_PLAYERS];
+    Random random = new Random(1);
+    for (int spot = 0; spot < ALL_IN_SPOTS; spot++) {
+      for (int seat = 0; seat < Game.MAX_PLAYERS; seat++) {
+        contributions[spot][seat] = 1 + random.nextInt(1000);
+        strengths[spot][seat] = (random.nextInt(8) == 0) ? 0 : 1 + random.nextInt(200);
+      }
+    }
+    final SidePots sidePots = new SidePots(Game.MAX_PLAYERS);
+    measure("SidePots 8-way all-in", new Operation() {
+      @Override
+      public long run(int n) {
+        int spot = n & (ALL_IN_SPOTS - 1);
+        sidePots.resolve(Game.MAX_PLAYERS, contributions[spot], strengths[spot], n & 7);
+        return sidePots.getPayout(0) + sidePots.getNumberOfPots();
+      }
+    });
+  }
+
+  /* One full 8 player game without printing. */
+  private static void benchmarkGame() {
+    final Game game = new Game(new GameRandom(1));
+    final SimulationReport report = new SimulationReport();
+    measure("Game 8 players", new Operation() {
+      @Override
+      public long run(int n) {
+        game.play(Game.MAX_PLAYERS, 1, report);
+        return n;
+      }
+    });
+  }
+
+  /* Play games of every table size, and 8 player games for chips, on one
+     Game and check that, once warmed up, they allocate no bytes at all. */
+  private static boolean checkGameAllocation() {
+    Game game = new Game(new GameRandom(1));
+    SimulationReport report = new SimulationReport();
+    boolean passed = true;
+    for (int numberOfPlayers = Game.MIN_PLAYERS; numberOfPlayers <= Game.MAX_PLAYERS; numberOfPlayers++) {
+      game.play(numberOfPlayers, ALLOCATION_WARMUP_GAMES, report);
+      long bytes = threads.getCurrentThreadAllocatedBytes();
+      game.play(numberOfPlayers, ALLOCATION_GAMES, report);
+      bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+      System.out.printf("Game %d players: %d bytes in %d games %s%n", numberOfPlayers, bytes,
+        ALLOCATION_GAMES, (bytes == 0) ? "PASS" : "FAIL");
+      passed &= (bytes == 0);
+    }
+
+    game.setStacks(new long[] { 100, 250, 400, 550, 700, 850, 1000, 1150 });
+    game.play(Game.MAX_PLAYERS, ALLOCATION_WARMUP_GAMES, report);
+    long bytes = threads.getCurrentThreadAllocatedBytes();
+    game.play(Game.MAX_PLAYERS, ALLOCATION_GAMES, report);
+    bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+    System.out.printf("Game %d players all-in: %d bytes in %d games %s%n", Game.MAX_PLAYERS, bytes,
+      ALLOCATION_GAMES, (bytes == 0) ? "PASS" : "FAIL");
+    passed &= (bytes == 0);
+    sink = report.getNumberOfGames();
+    return passed;
+  }
+
+  private static void measure(String name, Operation operation) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      runIteration(operation);
+    }
+    long operations = 0;
+    long nanos = 0;
+    long bytes = 0;
+    for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+      long[] result = runIteration(operation);
+      operations += result[0];
+      nanos      += result[1];
+      bytes      += result[2];
+    }
+    double seconds = nanos / 1e9;
+    System.out.printf("%-28s %14.0f %12.1f %12.1f %10.1f%n", name,
+      operations / seconds, nanos / (double)operations,
+      bytes / (double)operations, bytes / seconds / (1024 * 1024));
+  }
+
+  /* Return operations, nanoseconds and bytes allocated of one iteration. */
+  private static long[] runIteration(Operation operation) {
+    long result = 0;
+    int n = 0;
+    long bytes = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    long now;
+    do {
+      for (int i = 0; i < 1024; i++) {
+        result += operation.run(n++);
+      }
+      now = System.nanoTime();
+    } while (now - start < ITERATION_NANOS);
+    bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+    sink = result;
+    return new long[] { n, now - start, bytes };
+  }
+
+}
@@ -23,29 +23,76 @@ public final class Card {
     "J", "Q", "K", "A"
   };
 
+  public static final int NUMBER_OF_CARDS = 52;
+
+  /* The only Card instances, ordered by index. */
+  private static final Card CARDS[] = new Card[NUMBER_OF_CARDS];
+
+  static {
+    for (int index = 0; index < NUMBER_OF_CARDS; index++) {
+      CARDS[index] = new Card(index % 13 + 2, index / 13 + 1);
+    }
+  }
+
   private int val;
   private int suit;
+  private int index;
+  private long mask;
+  private String code;
+
+  private Card(int val, int suit) {
+    this.val   = val;
+    this.suit  = suit;
+    this.index = (suit - 1) * 13 + (val - 2);
+    this.mask  = CardSet.getBit(index);
+    this.code  = "" + "23456789TJQKA".charAt(val - 2) + "cdhs".charAt(suit - 1);
+  }
 
-  public Card(int val, int suit) {
-
-    if (val <= 0 || val >= WORD_VALUES.length)
-      { this.val = 0; }
-    else
-      { this.val  = val; }
+  /* Return canonical card, or null if value (2-14) or suit (1-4) is invalid. */
+  public static Card getCard(int val, int suit) {
+    if (val < 2 || val >= WORD_VALUES.length || suit <= 0 || suit >= SUITS.length) {
+      return null;
+    }
+    return CARDS[(suit - 1) * 13 + (val - 2)];
+  }
 
-    if (suit <= 0 || suit >= SUITS.length)
-      { this.suit = 0; }
-    else
-      { this.suit = suit; }
+  /* Return card written as value and suit letter, e.g. "Ah", "Td" or
+     "2c", or null if it is not a card. */
+  public static Card parse(String card) {
+    if (card.length() != 2) {
+      return null;
+    }
+    return getCard(parseValue(card.charAt(0)), "cdhs".indexOf(Character.toLowerCase(card.charAt(1))) + 1);
+  }
 
+  /* Return value (2-14) of a value letter (2-9, T, J, Q, K, A), or -1. */
+  public static int parseValue(char value) {
+    int i = "23456789TJQKA".indexOf(Character.toUpperCase(value));
+    return (i < 0) ? -1 : i + 2;
   }
 
+  /* Return canonical card of specified index (0-51). */
+  public static Card getCard(int index)
+    { return CARDS[index]; }
+
   public int getSuit()
     { return suit; }
 
   public int getValue()
     { return val; }
 
+  /* Index (0-51) of card, ordered by suit then value. */
+  public int getIndex()
+    { return index; }
+
+  /* Bit of card in a CardSet. */
+  public long getMask()
+    { return mask; }
+
+  /* Return card as value and suit letter, the form parse() reads. */
+  public String toCode()
+    { return code; }
+
   public String valueToString()
     { return WORD_VALUES[val]; }
 
@@ -54,13 +101,13 @@ public final class Card {
 
   @Override
   public String toString() {
-    String s = "[";
-    s += suitToString();
+    StringBuilder s = new StringBuilder("[");
+    s.append(suitToString());
     if (val != 10) {
-      s += " ";
+      s.append(' ');
     }
-    s += valueToString() + "]";
-    return s;
+    s.append(valueToString()).append(']');
+    return s.toString();
   }
 
   public static Comparator<Card> CardValueComparator = new Comparator<Card>() {
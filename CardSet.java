@@ -0,0 +1,101 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* CardSet.java */
+
+import java.util.ArrayList;
+
+/*
+    Set of cards held in a long. Each suit owns a 16-bit lane, in the
+    order of Card.SUITS, and bits 0-12 of a lane are the values 2 through A:
+
+    bit = (suit - 1) * 16 + (value - 2)
+
+    Membership, suit and value masks, flush and straight tests are all bit
+    operations, so a hand or board can be passed around as a plain long.
+*/
+
+public final class CardSet {
+
+  public static final long EMPTY = 0L;
+
+  private static final int VALUE_MASK = 0x1FFF;
+
+  private CardSet() {
+  }
+
+  /* Return bit of card with specified index (0-51). */
+  public static long getBit(int index)
+    { return 1L << ((index / 13) * 16 + index % 13); }
+
+  public static long add(long set, Card card)
+    { return set | card.getMask(); }
+
+  public static long remove(long set, Card card)
+    { return set & ~card.getMask(); }
+
+  public static boolean contains(long set, Card card)
+    { return (set & card.getMask()) != 0; }
+
+  public static int size(long set)
+    { return Long.bitCount(set); }
+
+  public static long fromList(ArrayList<Card> listOfCards) {
+    long set = EMPTY;
+    for (int i = 0; i < listOfCards.size(); i++) {
+      set |= listOfCards.get(i).getMask();
+    }
+    return set;
+  }
+
+  /* Return cards in descending order of value, then suit. */
+  public static ArrayList<Card> toList(long set) {
+    ArrayList<Card> listOfCards = new ArrayList<>();
+    for (int val = 14; val >= 2; val--) {
+      for (int suit = Card.SUITS.length - 1; suit >= 1; suit--) {
+        if ((set & getBit((suit - 1) * 13 + (val - 2))) != 0) {
+          listOfCards.add(Card.getCard(val, suit));
+        }
+      }
+    }
+    return listOfCards;
+  }
+
+  /* Return 13-bit mask of values held in specified suit (1-4). */
+  public static int getSuitMask(long set, int suit)
+    { return (int)(set >>> ((suit - 1) << 4)) & VALUE_MASK; }
+
+  /* Return 13-bit mask of values held in any suit. */
+  public static int getValueMask(long set)
+    { return (int)(set | (set >>> 16) | (set >>> 32) | (set >>> 48)) & VALUE_MASK; }
+
+  /* Return suit holding 5 or more cards, or 0 if there is none. */
+  public static int getFlushSuit(long set) {
+    for (int suit = 1; suit < Card.SUITS.length; suit++) {
+      if (Integer.bitCount(getSuitMask(set, suit)) >= 5) {
+        return suit;
+      }
+    }
+    return 0;
+  }
+
+  /* Return highest value (5-14) of a straight in a value mask, or 0. */
+  public static int getStraightValue(int valueMask) {
+    /* Shift values up one bit and copy the ace below the 2. */
+    int m = (valueMask << 1) | (valueMask >>> 12);
+    int runs = m & (m >>> 1) & (m >>> 2) & (m >>> 3) & (m >>> 4);
+    if (runs == 0) {
+      return 0;
+    }
+    return 31 - Integer.numberOfLeadingZeros(runs) + 5;
+  }
+
+  public static boolean hasStraight(long set)
+    { return getStraightValue(getValueMask(set)) != 0; }
+
+  public static boolean hasFlush(long set)
+    { return getFlushSuit(set) != 0; }
+
+}
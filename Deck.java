@@ -5,29 +5,48 @@
 
 /* Deck.java */
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/*
+    The deck is a fixed array of the 52 cards and top points at the next
+    card to draw. Shuffling is lazy: shuffle() only marks the deck and each
+    draw swaps a random undealt card to the top (Fisher-Yates one step at a
+    time), so a game only pays for the cards it deals. initializeDeck()
+    moves top back and restores the factory order if cards were swapped,
+    so a deal only depends on the random numbers drawn for it and a game
+    can be dealt again from its GameRandom stream.
+*/
 
 public final class Deck {
 
-  private ArrayList<Card> deck;
-  private Random random;
+  private Card[] deck;
+  private int top;
+  private boolean isShuffled;
+  private boolean isOrdered;
+  private RandomGenerator random;
 
   public Deck() {
-    deck   = new ArrayList<>();
-    random = new Random();
-    initializeDeck();
+    this(new Random());
   }
 
-  private void addCard(Card card)
-    { deck.add(card); }
+  public Deck(RandomGenerator random) {
+    deck        = new Card[Card.NUMBER_OF_CARDS];
+    this.random = random;
+    restoreOrder();
+    initializeDeck();
+  }
 
   public Card drawCard() {
-    if (deck.size() > 0) {
-      Card topCard = deck.get(0);
-      deck.remove(0);
-      return topCard;
+    if (top < deck.length) {
+      if (isShuffled) {
+        int card = top + random.nextInt(deck.length - top);
+        Card topCard = deck[card];
+        deck[card] = deck[top];
+        deck[top] = topCard;
+        isOrdered = false;
+      }
+      return deck[top++];
     }
     else {
       System.out.println("Cannot draw any more cards. This deck is empty.");
@@ -38,33 +57,35 @@ public final class Deck {
   public void burnTopCard()
     { drawCard(); }
 
+  /* Put every card back in the deck. */
   public void initializeDeck() {
-    deck.clear();
-    for (int suit = 1; suit <= 4; suit++) {
-      for (int val = 2; val <= 14; val++) {
-        Card card;
-        card = new Card(val, suit);
-        addCard(card);
-      }
+    top        = 0;
+    isShuffled = false;
+    if (!isOrdered) {
+      restoreOrder();
     }
   }
 
+  public int getNumberOfCards()
+    { return deck.length - top; }
+
   public void print() {
-    String msg = "Cards in deck: \n";
-    for (Card card : deck) {
-      msg += "  " + card.toString();
+    StringBuilder msg = new StringBuilder("Cards in deck: \n");
+    for (int i = top; i < deck.length; i++) {
+      msg.append("  ").append(deck[i].toString());
     }
     System.out.println(msg);
   }
 
-  public void shuffle() {
-    int card1;
-    int card2;
-    for (int i = 0; i < deck.size() * 5; i++) { /* shuffle a few times */
-      card1 = random.nextInt(deck.size());
-      card2 = random.nextInt(deck.size());
-      Collections.swap(deck, card1, card2);
+  /* Shuffle the cards left in the deck. */
+  public void shuffle()
+    { isShuffled = true; }
+
+  private void restoreOrder() {
+    for (int i = 0; i < deck.length; i++) {
+      deck[i] = Card.getCard(i);
     }
+    isOrdered = true;
   }
 
 }
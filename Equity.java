@@ -0,0 +1,153 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Equity.java */
+
+/*
+    Win/tie/loss counts of each player over a number of showdowns (one
+    per board for fixed hole cards). A tie splits the showdown evenly
+    between the tied players, so equity is (wins + tie shares) /
+    showdowns.
+
+    Showdowns can carry a weight, e.g. how likely the players are to hold
+    the combos it was scored for. getWins(), getTies() and getLosses()
+    always count showdowns exactly; getWeightedWins() and the others add
+    up their weights, and rates are taken over the total weight.
+    Unweighted showdowns weigh 1 each, so both agree for them.
+*/
+
+public final class Equity {
+
+  private long numberOfShowdowns;
+  private double totalWeight;
+  private long[] wins;
+  private long[] ties;
+  private long[] losses;
+  private double[] weightedWins;
+  private double[] weightedTies;
+  private double[] weightedLosses;
+  private double[] shares; /* weighted */
+
+  public Equity(int numberOfPlayers) {
+    numberOfShowdowns = 0;
+    totalWeight       = 0;
+    wins           = new long[numberOfPlayers];
+    ties           = new long[numberOfPlayers];
+    losses         = new long[numberOfPlayers];
+    weightedWins   = new double[numberOfPlayers];
+    weightedTies   = new double[numberOfPlayers];
+    weightedLosses = new double[numberOfPlayers];
+    shares         = new double[numberOfPlayers];
+  }
+
+  /* Add one board given the strength of each player's hand. */
+  public void addBoard(int[] strengths)
+    { addBoard(strengths, 1); }
+
+  /* Add one board of specified weight given the strength of each
+     player's hand. */
+  public void addBoard(int[] strengths, double weight) {
+    int highestStrength = 0;
+    int numberOfWinners = 0;
+    for (int i = 0; i < wins.length; i++) {
+      if (strengths[i] > highestStrength) {
+        highestStrength = strengths[i];
+        numberOfWinners = 1;
+      }
+      else if (strengths[i] == highestStrength) {
+        numberOfWinners++;
+      }
+    }
+
+    numberOfShowdowns++;
+    totalWeight += weight;
+    for (int i = 0; i < wins.length; i++) {
+      if (strengths[i] != highestStrength) {
+        losses[i]++;
+        weightedLosses[i] += weight;
+      }
+      else if (numberOfWinners == 1) {
+        wins[i]++;
+        weightedWins[i] += weight;
+      }
+      else {
+        ties[i]++;
+        weightedTies[i] += weight;
+        shares[i]       += weight / numberOfWinners;
+      }
+    }
+  }
+
+  public void merge(Equity other) {
+    numberOfShowdowns += other.numberOfShowdowns;
+    totalWeight       += other.totalWeight;
+    for (int i = 0; i < wins.length; i++) {
+      wins[i]           += other.wins[i];
+      ties[i]           += other.ties[i];
+      losses[i]         += other.losses[i];
+      weightedWins[i]   += other.weightedWins[i];
+      weightedTies[i]   += other.weightedTies[i];
+      weightedLosses[i] += other.weightedLosses[i];
+      shares[i]         += other.shares[i];
+    }
+  }
+
+  public int getNumberOfPlayers()
+    { return wins.length; }
+
+  /* Return number of showdowns added, whatever their weight. */
+  public long getNumberOfShowdowns()
+    { return numberOfShowdowns; }
+
+  /* Return number of boards of fixed hole cards, each one showdown. */
+  public long getNumberOfBoards()
+    { return numberOfShowdowns; }
+
+  /* Total weight of every showdown (their number if unweighted). */
+  public double getTotalWeight()
+    { return totalWeight; }
+
+  public long getWins(int player)
+    { return wins[player]; }
+
+  public long getTies(int player)
+    { return ties[player]; }
+
+  public long getLosses(int player)
+    { return losses[player]; }
+
+  public double getWeightedWins(int player)
+    { return weightedWins[player]; }
+
+  public double getWeightedTies(int player)
+    { return weightedTies[player]; }
+
+  public double getWeightedLosses(int player)
+    { return weightedLosses[player]; }
+
+  public double getWinRate(int player)
+    { return weightedWins[player] / totalWeight; }
+
+  public double getTieRate(int player)
+    { return weightedTies[player] / totalWeight; }
+
+  public double getLossRate(int player)
+    { return weightedLosses[player] / totalWeight; }
+
+  public double getEquity(int player)
+    { return (weightedWins[player] + shares[player]) / totalWeight; }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder();
+    for (int i = 0; i < wins.length; i++) {
+      s.append(String.format("Player %d: equity %6.3f%%  win %6.3f%%  tie %6.3f%%  loss %6.3f%%%n",
+        i + 1, getEquity(i) * 100, getWinRate(i) * 100, getTieRate(i) * 100, getLossRate(i) * 100));
+    }
+    s.append(numberOfShowdowns).append(" showdowns");
+    return s.toString();
+  }
+
+}
@@ -0,0 +1,146 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* EquityCalculator.java */
+
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveTask;
+
+/*
+    Exact equity of known hole cards. Every runout of the remaining
+    community cards is dealt once (1,712,304 boards preflop heads-up).
+
+    Boards are built one card at a time, carrying the evaluator's value
+    state along, so each board is scored once and every player only adds
+    their two hole cards to it. The boards are split by their first card
+    across the common ForkJoinPool.
+*/
+
+public final class EquityCalculator {
+
+  private EquityCalculator() {
+  }
+
+  /* Return equity of each hand (as held by Player.getHand()) given 0 to 5
+     known community cards. The hands and a full board of 5 must fit in
+     one deck, so at most 23 hands. */
+  public static Equity calculate(ArrayList<ArrayList<Card>> hands, ArrayList<Card> communityCards) {
+    long[] holeCards = new long[hands.size()];
+    long deadCards = CardSet.fromList(communityCards);
+
+    if (hands.size() < 1 || communityCards.size() > 5 || CardSet.size(deadCards) != communityCards.size()) {
+      throw new IllegalArgumentException("Need at least one hand and up to 5 distinct community cards.");
+    }
+    if (2 * hands.size() + 5 > Card.NUMBER_OF_CARDS) {
+      throw new IllegalArgumentException("Cannot deal " + hands.size() + " hands and a board from one deck.");
+    }
+    for (int i = 0; i < hands.size(); i++) {
+      holeCards[i] = CardSet.fromList(hands.get(i));
+      if (hands.get(i).size() != 2 || CardSet.size(holeCards[i]) != 2 || (deadCards & holeCards[i]) != 0) {
+        throw new IllegalArgumentException("Hand " + (i + 1) + " must be 2 cards not dealt elsewhere.");
+      }
+      deadCards |= holeCards[i];
+    }
+
+    long[] remainingCards = new long[Card.NUMBER_OF_CARDS - CardSet.size(deadCards)];
+    int n = 0;
+    for (int index = 0; index < Card.NUMBER_OF_CARDS; index++) {
+      long card = Card.getCard(index).getMask();
+      if ((deadCards & card) == 0) {
+        remainingCards[n++] = card;
+      }
+    }
+
+    long board = CardSet.fromList(communityCards);
+    Search search = new Search(holeCards, remainingCards, 5 - communityCards.size(),
+      board, HandEvaluator.addCards(0, board));
+    if (search.cardsToDeal == 0) {
+      return search.enumerate(0, 1);
+    }
+    return search.invoke();
+  }
+
+  /* Deals every board whose first new card is remainingCards[first..last). */
+  private static final class Search extends RecursiveTask<Equity> {
+
+    private static final long serialVersionUID = 1L;
+
+    private long[] holeCards;
+    private long[] remainingCards;
+    private int cardsToDeal;
+    private long board;
+    private int boardState;
+    private int first;
+    private int last;
+
+    /* Per task scratch, so scoring a board allocates nothing. */
+    private transient int[] strengths;
+    private transient Equity equity;
+
+    private Search(long[] holeCards, long[] remainingCards, int cardsToDeal, long board, int boardState) {
+      this(holeCards, remainingCards, cardsToDeal, board, boardState, 0, remainingCards.length);
+    }
+
+    private Search(long[] holeCards, long[] remainingCards, int cardsToDeal,
+        long board, int boardState, int first, int last) {
+      this.holeCards      = holeCards;
+      this.remainingCards = remainingCards;
+      this.cardsToDeal    = cardsToDeal;
+      this.board          = board;
+      this.boardState     = boardState;
+      this.first          = first;
+      this.last           = Math.min(last, remainingCards.length - cardsToDeal + 1);
+    }
+
+    @Override
+    protected Equity compute() {
+      if (last - first <= 1) {
+        return enumerate(first, last);
+      }
+      int middle = (first + last) >>> 1;
+      Search left = new Search(holeCards, remainingCards, cardsToDeal, board, boardState, first, middle);
+      left.fork();
+      Equity right = new Search(holeCards, remainingCards, cardsToDeal, board, boardState, middle, last).compute();
+      Equity result = left.join();
+      result.merge(right);
+      return result;
+    }
+
+    private Equity enumerate(int first, int last) {
+      strengths = new int[holeCards.length];
+      equity = new Equity(holeCards.length);
+      if (cardsToDeal == 0) {
+        addBoard(board, boardState);
+        return equity;
+      }
+      for (int i = first; i < last; i++) {
+        long card = remainingCards[i];
+        deal(i + 1, cardsToDeal - 1, board | card, HandEvaluator.addCards(boardState, card));
+      }
+      return equity;
+    }
+
+    private void deal(int next, int cardsLeft, long cards, int state) {
+      if (cardsLeft == 0) {
+        addBoard(cards, state);
+        return;
+      }
+      for (int i = next; i <= remainingCards.length - cardsLeft; i++) {
+        long card = remainingCards[i];
+        deal(i + 1, cardsLeft - 1, cards | card, HandEvaluator.addCards(state, card));
+      }
+    }
+
+    private void addBoard(long cards, int state) {
+      for (int i = 0; i < holeCards.length; i++) {
+        long hand = cards | holeCards[i];
+        strengths[i] = HandEvaluator.evaluate(HandEvaluator.addCards(state, holeCards[i]), hand);
+      }
+      equity.addBoard(strengths);
+    }
+
+  }
+
+}
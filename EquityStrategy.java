@@ -0,0 +1,171 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* EquityStrategy.java */
+
+/*
+    The CPU players' strategy: stay in on the turn if the river equity
+    against every other player still in (TurnEquity) is at least an even
+    share of the pot, and fold otherwise.
+
+    Equities are kept in a bounded cache of spots, so a spot seen before
+    costs a lookup instead of a TurnEquity calculation. A spot is the
+    board and the hole cards of each seat, still in or folded (folded
+    cards are dead cards to TurnEquity, so they change the equities too).
+    The first player asked computes the equity of every seat at once, and
+    the other players of the game, or a later game dealt the same spot
+    (e.g. the same seeded games played again by other strategies), find
+    it in the cache.
+
+    The cache is direct-mapped, like a chess engine's transposition table:
+    a spot's key (6 bits per card, 120 bits for a board of 4 and 8 seats,
+    with a folded seat's two cards in the opposite order) hashes to one
+    slot, which keeps the last spot stored in it. Its size never changes,
+    a lookup reads one slot, and nothing is allocated after the
+    constructor.
+
+    A seat that has already folded does not stay in, so the seat asking is
+    always one of the players still in and the even share is never a
+    share among none.
+
+    Not thread safe: each Game has its own.
+*/
+
+public final class EquityStrategy implements Strategy {
+
+  public static final int DEFAULT_CACHE_SIZE = 1 << 12;
+
+  private static final int CARD_BITS = 6;
+  private static final long NO_CARD = (1L << CARD_BITS) - 1; /* above every CardSet bit */
+  private static final int SEATS_IN_FIRST_WORD = 3;         /* after the board's 4 cards */
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private TurnEquity turnEquity;
+  private int maxSeats;
+  private int slotMask;
+  private long[] keys;       /* two words per slot, first word 0 if empty */
+  private double[] equities; /* maxSeats per slot */
+  private long lastBoard;           /* spot of the last decision */
+  private long[] lastHoleCards;     /* of each seat */
+  private int lastFolds;            /* bit n set if seat n folded */
+  private int lastNumberOfPlayers;
+  private int lastNumberOfLiveSeats;
+  private int lastSlot;
+  private long hits;
+  private long misses;
+  private long numberOfEvaluations;
+
+  public EquityStrategy(int maxSeats)
+    { this(maxSeats, DEFAULT_CACHE_SIZE); }
+
+  /* cacheSize is the number of spots kept, a power of two. */
+  public EquityStrategy(int maxSeats, int cacheSize) {
+    if (maxSeats > 8 || cacheSize < 1 || Integer.bitCount(cacheSize) != 1) {
+      throw new IllegalArgumentException("At most 8 seats and a cache size that is a power of two.");
+    }
+    this.maxSeats = maxSeats;
+    turnEquity    = new TurnEquity(maxSeats);
+    slotMask      = cacheSize - 1;
+    keys          = new long[2 * cacheSize];
+    equities      = new double[maxSeats * cacheSize];
+    lastHoleCards = new long[maxSeats];
+  }
+
+  @Override
+  public boolean staysIn(Strategy.View view, int seat) {
+    int numberOfPlayers = view.getNumberOfPlayers();
+    long board = view.getBoard();
+    if (CardSet.size(board) != 4) {
+      throw new IllegalStateException("Equity is only known on the turn.");
+    }
+    if (view.hasFolded(seat)) {
+      return false;
+    }
+
+    /* The players of a game ask one after the other about the same spot. */
+    boolean isLastSpot = (board == lastBoard && numberOfPlayers == lastNumberOfPlayers);
+    int folds = 0;
+    for (int s = 0; s < numberOfPlayers; s++) {
+      long holeCards = view.getHoleCards(s);
+      folds |= view.hasFolded(s) ? 1 << s : 0;
+      isLastSpot &= (holeCards == lastHoleCards[s]);
+      lastHoleCards[s] = holeCards;
+    }
+    isLastSpot &= (folds == lastFolds);
+    lastFolds = folds;
+    lastBoard = board;
+    lastNumberOfPlayers = numberOfPlayers;
+    if (!isLastSpot) {
+      lastSlot = findSlot(view, board, numberOfPlayers);
+    }
+    else {
+      hits++;
+    }
+    return equities[lastSlot * maxSeats + seat] >= 1.0 / lastNumberOfLiveSeats;
+  }
+
+  /* Return number of decisions whose spot was in the cache. */
+  public long getHits()
+    { return hits; }
+
+  /* Return number of decisions whose spot had to be calculated. */
+  public long getMisses()
+    { return misses; }
+
+  /* Return number of hands scored by TurnEquity for the cache. */
+  public long getNumberOfEvaluations()
+    { return numberOfEvaluations; }
+
+  /* Return slot holding the spot of lastHoleCards and lastFolds,
+     calculating it if it is not in the cache. */
+  private int findSlot(Strategy.View view, long board, int numberOfPlayers) {
+    long first = (long)numberOfPlayers << 60;
+    long second = 0;
+    int shift = 0;
+    for (long m = board; m != 0; m &= m - 1) {
+      first |= (long)Long.numberOfTrailingZeros(m) << shift;
+      shift += CARD_BITS;
+    }
+    lastNumberOfLiveSeats = 0;
+    for (int s = 0; s < maxSeats; s++) {
+      long holeCards = (s < numberOfPlayers) ? lastHoleCards[s] : CardSet.EMPTY;
+      long cards = NO_CARD << CARD_BITS | NO_CARD;
+      if (holeCards != CardSet.EMPTY) {
+        long high = 63 - Long.numberOfLeadingZeros(holeCards);
+        long low  = Long.numberOfTrailingZeros(holeCards);
+        if ((lastFolds & (1 << s)) == 0) {
+          cards = high << CARD_BITS | low;
+          lastNumberOfLiveSeats++;
+        }
+        else {
+          cards = low << CARD_BITS | high;
+        }
+      }
+      if (s < SEATS_IN_FIRST_WORD) {
+        first |= cards << (4 + 2 * s) * CARD_BITS;
+      }
+      else {
+        second |= cards << 2 * (s - SEATS_IN_FIRST_WORD) * CARD_BITS;
+      }
+    }
+
+    long hash = (first ^ second * HASH_MULTIPLIER) * 0xBF58476D1CE4E5B9L;
+    int slot = (int)((hash ^ (hash >>> 31)) * 0x94D049BB133111EBL >>> 32) & slotMask;
+    if (keys[2 * slot] == first && keys[2 * slot + 1] == second) {
+      hits++;
+      return slot;
+    }
+    misses++;
+    turnEquity.calculate(view);
+    numberOfEvaluations += turnEquity.getNumberOfEvaluations();
+    keys[2 * slot]     = first;
+    keys[2 * slot + 1] = second;
+    for (int s = 0; s < maxSeats; s++) {
+      equities[slot * maxSeats + s] = (s < numberOfPlayers) ? turnEquity.getEquity(s) : 0;
+    }
+    return slot;
+  }
+
+}
@@ -5,37 +5,137 @@
 
 /* Game.java */
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.random.RandomGenerator;
 
 public final class Game {
 
-  private static final int MIN_PLAYERS = 2;
-  private static final int MAX_PLAYERS = 8;
+  public static final int MIN_PLAYERS = 2;
+  public static final int MAX_PLAYERS = 8;
+
+  /* Follows a game as it is played, e.g. to show it to remote players,
+     and decides for HUMAN players. Called on the thread playing the game. */
+  public interface Listener {
+    /* A new game has started and every player has two hole cards. */
+    void holeCardsDealt(Game game);
+    /* The flop (3 cards), the turn or the river (1 card) was dealt. */
+    void communityCardsDealt(Game game, int numberOfCards);
+    /* Return true if seat's HUMAN player stays in on the turn. */
+    boolean staysIn(Game game, int seat);
+    void folded(Game game, int seat);
+    /* The game is over and getWinners() holds its winners. */
+    void showdown(Game game);
+  }
 
+  private PrintWriter out; /* per-game output, null when quiet */
   private Deck deck;
+  private RandomGenerator random;
+  private GameRandom gameRandom; /* random when it is one, else null */
   private ArrayList<Player> players; /* this list includes CPU players */
   private ArrayList<Card> communityCards;
+  private StreetEvaluator hands; /* incremental strength of each player */
+  private EquityStrategy equityStrategy; /* of players without another strategy */
+  private Strategy[] strategies; /* by seat, null for equityStrategy */
+  private GameView view;         /* of this game, for strategies */
+  private boolean[] isFolding;   /* decisions on the turn */
+  private ArrayList<Integer> listOfWinners;    /* winners of the current game */
+  private ArrayList<Integer> listOfAllWinners; /* highest hands, folded or not */
+  private ByteBuffer history;    /* hand history records, null when not recorded */
+  private long seed;
+  private long gameNumber;       /* of the next game */
+  private SimulationMetrics.Recorder metrics; /* null when not recorded */
+  private Listener listener;     /* null when none */
+  private long[] stacks;         /* chips of each seat at the start of a game, null for no chips */
+  private long[] contributions;  /* chips each seat put in the pot */
+  private int[] liveStrengths;   /* strength of each seat still in, 0 if folded */
+  private SidePots sidePots;
 
   public Game() {
-    deck           = new Deck();
-    players        = new ArrayList<>();
-    communityCards = new ArrayList<>();
+    this(new Random());
+  }
+
+  /* With a GameRandom, each game is dealt from the stream of its game
+     number. */
+  public Game(RandomGenerator random) {
+    out              = null;
+    deck             = new Deck(random);
+    this.random      = random;
+    gameRandom       = (random instanceof GameRandom) ? (GameRandom)random : null;
+    players          = new ArrayList<>();
+    communityCards   = new ArrayList<>();
+    hands            = new StreetEvaluator(MAX_PLAYERS);
+    equityStrategy   = new EquityStrategy(MAX_PLAYERS);
+    view             = new GameView();
+    isFolding        = new boolean[MAX_PLAYERS];
+    listOfWinners    = new ArrayList<>();
+    listOfAllWinners = new ArrayList<>();
+    contributions    = new long[MAX_PLAYERS];
+    liveStrengths    = new int[MAX_PLAYERS];
+    sidePots         = new SidePots(MAX_PLAYERS);
+  }
+
+  public void setOutput(PrintWriter out)
+    { this.out = out; }
+
+  /* Number the games played from now on from specified game number. */
+  public void setGameNumber(long gameNumber)
+    { this.gameNumber = gameNumber; }
+
+  /* Append a HandRecord of every game played from now on to history. */
+  public void setHistory(ByteBuffer history, long seed) {
+    this.history = history;
+    this.seed    = seed;
+  }
+
+  /* Tell listener about every game played from now on (null for none).
+     Without a listener HUMAN players decide like CPU players. */
+  public void setListener(Listener listener)
+    { this.listener = listener; }
+
+  /* Record every game played from now on to metrics (null for none). */
+  public void setMetrics(SimulationMetrics.Recorder metrics)
+    { this.metrics = metrics; }
+
+  /* Play every game from now on for chips: each seat starts a game with
+     stacks[seat % stacks.length] chips, every player still in after the
+     turn goes all-in, and the pots are paid by SidePots (null for no
+     chips). The button moves one seat every game. */
+  public void setStacks(long[] stacks) {
+    if (stacks != null) {
+      if (stacks.length == 0) {
+        throw new IllegalArgumentException("Stacks must not be empty.");
+      }
+      for (long stack : stacks) {
+        if (stack < 1) {
+          throw new IllegalArgumentException("Stacks must be at least 1 chip.");
+        }
+      }
+    }
+    this.stacks = stacks;
+  }
+
+  /* Let seat's player decide with strategies[seat % strategies.length]
+     from now on (null for every player to use an EquityStrategy). */
+  public void setStrategies(Strategy[] strategies) {
+    if (strategies != null && strategies.length == 0) {
+      throw new IllegalArgumentException("Strategies must not be empty.");
+    }
+    this.strategies = strategies;
+    for (int seat = 0; seat < players.size(); seat++) {
+      players.get(seat).setStrategy(getStrategy(seat));
+    }
   }
 
   public void start() {
 
     int numberOfPlayers;
     int numberOfGames;
-    int numberOfGamesPlayed;
-    int numberOfTimesBestHandWasWinningHand;
-    int[] wins = new int[8];
-    ArrayList<Integer> listOfWinners = new ArrayList<>();
-    ArrayList<Integer> listOfAllWinners = new ArrayList<>();
-    ArrayList<String> listOfWinningHands = new ArrayList<>();
-    ArrayList<Integer> occurencesOfWinningHands = new ArrayList<>();
-    Random random = new Random();
     Scanner in;
 
     in = new Scanner(System.in);
@@ -54,157 +154,266 @@ public final class Game {
       numberOfGames = Integer.parseInt(in.nextLine());
     }
     System.out.println("");
-//    numberOfPlayers = 8;
-//    numberOfGames = 1000;
 
-    numberOfGamesPlayed = numberOfGames;
-    numberOfTimesBestHandWasWinningHand = 0;
+    long simulationSeed = random.nextLong();
+    System.out.println("Seed: " + simulationSeed + "\n");
+    PrintWriter gameOutput = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+    Simulation simulation = new Simulation(numberOfPlayers, numberOfGames, simulationSeed);
+    SimulationMetrics simulationMetrics = new SimulationMetrics();
+    simulationMetrics.register();
+    simulation.setMetrics(simulationMetrics);
+    SimulationReport report = simulation.run(1, gameOutput);
+    gameOutput.flush();
+    report.print();
 
-    for (int i = 0; i < 8; i++) {
-      wins[i] = 0;
-    }
+  }
 
+  /* Play specified number of games and add their results to report. */
+  public void play(int numberOfPlayers, int numberOfGames, SimulationReport report) {
     for (int n = 0; n < numberOfGames; n++) {
+      playGame(numberOfPlayers, report);
+    }
+  }
 
-      System.out.println("Starting new game...\n");
+  private void playGame(int numberOfPlayers, SimulationReport report) {
 
-      players.clear();
-      communityCards.clear();
+    boolean isTimed = (metrics != null) && metrics.isTimed();
+    long startTime = isTimed ? System.nanoTime() : 0;
 
-      /* Add human player. */
-//      addPlayer(Player.Type.HUMAN, "");
+    if (out != null) {
+      out.println("Starting new game (" + gameNumber + ")...\n");
+    }
+    if (gameRandom != null) {
+      gameRandom.setGame(gameNumber);
+    }
 
-      /* Add CPU players. */
-      for (int i = 0; i < numberOfPlayers; i++) {
-        addPlayer(Player.Type.CPU, "");
-      }
+    seatPlayers(numberOfPlayers);
+    communityCards.clear();
+    hands.reset(numberOfPlayers);
 
-      /* Initialize deck. */
-      deck.initializeDeck();
-      deck.shuffle();
+    /* Initialize deck. */
+    deck.initializeDeck();
+    deck.shuffle();
 
-      /* Deal cards to players and display. */
-      for (int i = 0; i < players.size(); i++) {
-        dealCard(i);
-        dealCard(i);
-      }
+    /* Deal cards to players and display. */
+    for (int i = 0; i < players.size(); i++) {
+      dealCard(i);
+      dealCard(i);
+    }
+    if (out != null) {
       printPlayersCards();
-      System.out.println();
+      out.println();
+    }
+    if (listener != null) {
+      listener.holeCardsDealt(this);
+    }
 
-      /* Flop */
-      System.out.print("Flop:  ");
-      deck.burnTopCard();
-      for (int i = 0; i < 3; i++) {
-        dealCard();
-      }
+    /* Flop */
+    deck.burnTopCard();
+    for (int i = 0; i < 3; i++) {
+      dealCard();
+    }
+    if (out != null) {
+      out.print("Flop:  ");
       printCommunityCards();
+    }
+    if (listener != null) {
+      listener.communityCardsDealt(this, 3);
+    }
 
-      /* Turn */
-      System.out.print("Turn:  ");
-      deck.burnTopCard();
-      dealCard();
+    /* Turn */
+    deck.burnTopCard();
+    dealCard();
+    if (out != null) {
+      out.print("Turn:  ");
       printCommunityCards(communityCards.size()-1);
+    }
+    if (listener != null) {
+      listener.communityCardsDealt(this, 1);
+    }
 
-      /* CPUs decide whether they want to fold or not. */
-      for (int i = 0; i < players.size(); i++) {
-        Rank rank = new Rank(communityCards, players.get(i).getHand());
-        if (rank.getDegree() >= 8) {
-          if (random.nextInt(100) >= 30) {
-            players.get(i).fold();
-            System.out.println(players.get(i).getName() + " has folded.");
-          }
+    /* Every player decides before any fold is applied: humans are asked
+       by the listener, everyone else by its Strategy (by default, fold if
+       the river equity against everyone else is below an even share of
+       the pot). */
+    long dealtTime = isTimed ? System.nanoTime() : 0;
+    long evaluations = equityStrategy.getNumberOfEvaluations();
+    for (int i = 0; i < players.size(); i++) {
+      Player player = players.get(i);
+      isFolding[i] = (listener != null && player.getType() == Player.Type.HUMAN)
+        ? !listener.staysIn(this, i)
+        : !player.getStrategy().staysIn(view, i);
+    }
+    evaluations = equityStrategy.getNumberOfEvaluations() - evaluations;
+    long turnEvaluationNanos = isTimed ? System.nanoTime() - dealtTime : 0;
+    int numberOfFolds = 0;
+    for (int i = 0; i < players.size(); i++) {
+      if (isFolding[i]) {
+        players.get(i).fold();
+        numberOfFolds++;
+        if (out != null) {
+          out.println(players.get(i).getName() + " has folded.");
+        }
+        if (listener != null) {
+          listener.folded(this, i);
         }
       }
+    }
 
-      /* River */
-      System.out.print("River: ");
-      deck.burnTopCard();
-      dealCard();
+    /* River */
+    deck.burnTopCard();
+    dealCard();
+    if (out != null) {
+      out.print("River: ");
       printCommunityCards(communityCards.size()-1);
+    }
+    if (listener != null) {
+      listener.communityCardsDealt(this, 1);
+    }
 
-      /* Display hands with ranks. */
-      System.out.println("");
+    /* Display hands with ranks. */
+    if (out != null) {
+      out.println("");
       for (int i = 0; i < players.size(); i++) {
         Rank rank = new Rank(communityCards, players.get(i).getHand());
-        System.out.print(players.get(i).getName());
+        out.print(players.get(i).getName());
         if (players.get(i).hasFolded()) {
-          System.out.print(" would've had: ");
+          out.print(" would've had: ");
         }
         else {
-          System.out.print(" has: ");
+          out.print(" has: ");
         }
-        System.out.println(rank.toString());
+        out.println(rank.toString());
       }
+    }
 
-      /* Display winners. */
-      boolean winningHandCounted = false;
-      System.out.println("\nWinners: ");
-      listOfWinners = getWinners();
+    /* Display winners. */
+    long showdownTime = isTimed ? System.nanoTime() : 0;
+    findWinners(listOfWinners, listOfAllWinners);
+    if (isTimed) {
+      long endTime = System.nanoTime();
+      metrics.recordDurations(dealtTime - startTime, turnEvaluationNanos + endTime - showdownTime,
+        endTime - startTime);
+    }
+    if (metrics != null) {
+      metrics.recordGame((int)evaluations + hands.getNumberOfEvaluations(),
+        numberOfFolds, listOfWinners.size() > 0);
+    }
+    if (out != null) {
+      out.println("\nWinners: ");
       for (int winner : listOfWinners) {
-        wins[winner]++;
-        System.out.println(players.get(winner).getName());
-        Rank rank = new Rank(communityCards, players.get(winner).getHand());
-        if (!winningHandCounted) {
-          if (listOfWinningHands.indexOf(rank.getDegreeString()) == -1) {
-            listOfWinningHands.add(rank.getDegreeString());
-            occurencesOfWinningHands.add(1);
-          }
-          else {
-            int index = listOfWinningHands.indexOf(rank.getDegreeString());
-            occurencesOfWinningHands.set(index, occurencesOfWinningHands.get(index)+1);
-          }
-          winningHandCounted = true;
-        }
+        out.println(players.get(winner).getName());
       }
+    }
+
+    /* Count wins, folds and whether the best hand was the highest hand. */
+    report.addGame(players, hands, listOfWinners, listOfAllWinners);
+    if (stacks != null) {
+      playAllIn(report);
+    }
+    if (history != null) {
+      HandRecord.put(history, seed, gameNumber, players, communityCards, listOfWinners);
+    }
+    if (listener != null) {
+      listener.showdown(this);
+    }
+    gameNumber++;
+
+    if (out != null) {
+      out.println("");
+    }
+
+  }
 
-      /* Number of times the best hand equals the highest hand. */
-      listOfAllWinners = getAllWinners();
-      if (listOfWinners.size() > 0) {
-        Rank winningRank = new Rank(communityCards, players.get(listOfWinners.get(0)).getHand());
-        Rank allRank = new Rank(communityCards, players.get(listOfAllWinners.get(0)).getHand());
-        if (winningRank.toString().equalsIgnoreCase(allRank.toString())) {
-          numberOfTimesBestHandWasWinningHand++;
+  /* Put every stack still in the pot and pay out the main and side pots,
+     adding each seat's chips won or lost to report. */
+  private void playAllIn(SimulationReport report) {
+    int numberOfPlayers = players.size();
+    for (int i = 0; i < numberOfPlayers; i++) {
+      boolean hasFolded = players.get(i).hasFolded();
+      contributions[i] = hasFolded ? 0 : stacks[i % stacks.length];
+      liveStrengths[i] = hasFolded ? 0 : hands.getStrength(i);
+    }
+    int button = (int)(gameNumber % numberOfPlayers);
+    sidePots.resolve(numberOfPlayers, contributions, liveStrengths, (button + 1) % numberOfPlayers);
+    report.addAllIn(numberOfPlayers, contributions, sidePots);
+    if (out != null) {
+      out.println("\nPots: " + sidePots.getNumberOfPots());
+      for (int i = 0; i < numberOfPlayers; i++) {
+        if (contributions[i] > 0) {
+          out.println(players.get(i).getName() + " put in " + contributions[i]
+            + " and gets " + sidePots.getPayout(i) + " chips.");
         }
       }
-      else {
-        numberOfGamesPlayed--;
-//          /*
-//           *  START - Uncomment this section to see most common highest hand.
-//           */
-//        Rank rank = new Rank(communityCards, players.get(listOfAllWinners.get(0)).getHand());
-//        if (listOfWinningHands.indexOf(rank.getDegreeString()) == -1) {
-//          listOfWinningHands.add(rank.getDegreeString());
-//          occurencesOfWinningHands.add(1);
-//        }
-//        else {
-//          int index = listOfWinningHands.indexOf(rank.getDegreeString());
-//          occurencesOfWinningHands.set(index, occurencesOfWinningHands.get(index)+1);
-//        }
-//          /*
-//           *  END - Uncomment this section to see most common highest hand.
-//           */
-      }
+    }
+  }
 
-      System.out.println("");
+  /* Replay a recorded game: deal its cards, apply its folds and run the
+     showdown (and with stacks set, the all-in) again, adding the result
+     to report. Return true if the same players won as when the game was
+     recorded. */
+  public boolean replay(HandRecord record, SimulationReport report) {
+    seatPlayers(record.getNumberOfPlayers());
+    communityCards.clear();
+    hands.reset(record.getNumberOfPlayers());
+
+    for (int i = 0; i < record.getNumberOfPlayers(); i++) {
+      dealCard(i, record.getHoleCard(i, 0));
+      dealCard(i, record.getHoleCard(i, 1));
+    }
+    for (int i = 0; i < record.getNumberOfCommunityCards(); i++) {
+      dealCard(record.getCommunityCard(i));
+    }
+    for (int i = 0; i < players.size(); i++) {
+      if (record.hasFolded(i)) {
+        players.get(i).fold();
+      }
+    }
 
+    findWinners(listOfWinners, listOfAllWinners);
+    report.addGame(players, hands, listOfWinners, listOfAllWinners);
+    if (stacks != null) {
+      gameNumber = record.getGameNumber(); /* places the button */
+      playAllIn(report);
     }
 
-    /* Print report. */
-    System.out.println("----- Simulation Report -----");
-    System.out.println("Number of total rounds/games played out: " + numberOfGamesPlayed);
-    System.out.println("Number of wins-losses for each player:");
+    int numberOfRecordedWinners = 0;
     for (int i = 0; i < players.size(); i++) {
-      double percent = (double)wins[i] / (double)numberOfGames * (double)100;
-      System.out.print("  " + players.get(i).getName() + ": " + wins[i] + "-" + (numberOfGames-wins[i]));
-      System.out.printf(" (%.1f%%)\n", percent);
+      if (record.isWinner(i)) {
+        numberOfRecordedWinners++;
+      }
+    }
+    if (numberOfRecordedWinners != listOfWinners.size()) {
+      return false;
     }
-    System.out.println("Number of times best hand was highest hand: "+ numberOfTimesBestHandWasWinningHand);
-    System.out.println("Winning hand count: ");
-    for (int i = 0; i < occurencesOfWinningHands.size(); i++) {
-      System.out.printf("%8d  ", occurencesOfWinningHands.get(i));
-      System.out.println(listOfWinningHands.get(i));
+    for (int winner : listOfWinners) {
+      if (!record.isWinner(winner)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /* Seat players for a new game. The players of the last game are kept
+     (with empty hands) if there are as many, so that a game does not
+     allocate new players and names. */
+  private void seatPlayers(int numberOfPlayers) {
+    if (players.size() == numberOfPlayers) {
+      for (Player player : players) {
+        player.reset();
+      }
+      return;
     }
 
+    players.clear();
+
+    /* Add human player. */
+//    addPlayer(Player.Type.HUMAN, "");
+
+    /* Add CPU players. */
+    for (int i = 0; i < numberOfPlayers; i++) {
+      addPlayer(Player.Type.CPU, "");
+    }
   }
 
   public void addPlayer(Player.Type type, String name) {
@@ -218,192 +427,138 @@ public final class Game {
     else if (newName.equalsIgnoreCase("") && type == Player.Type.HUMAN) {
       newName = "Player " + (players.size() + 1);
     }
-    players.add(new Player(type, newName));
+    Player player = new Player(type, newName);
+    player.setStrategy(getStrategy(players.size()));
+    players.add(player);
   }
 
-  public void printCommunityCards() {
-    String msg = "";
-    for (Card card : communityCards) {
-      msg += card.toString() + " ";
-    }
-    System.out.println(msg);
-  }
+  private Strategy getStrategy(int seat)
+    { return (strategies != null) ? strategies[seat % strategies.length] : equityStrategy; }
+
+  public ArrayList<Player> getPlayers()
+    { return players; }
+
+  public ArrayList<Card> getCommunityCards()
+    { return communityCards; }
+
+  /* Return seats of the winners of the last game. */
+  public ArrayList<Integer> getWinners()
+    { return listOfWinners; }
+
+  /* Return number of the game being played. */
+  public long getGameNumber()
+    { return gameNumber; }
+
+  /* Return strength (1-7462) of seat's best hand on the current street. */
+  public int getStrength(int seat)
+    { return hands.getStrength(seat); }
+
+  public void printCommunityCards()
+    { printCommunityCards(0); }
 
   public void printCommunityCards(int startIndex) {
-    String msg = "";
-    for (int i = startIndex; i < communityCards.size(); i++) {
-      msg += communityCards.get(i).toString() + " ";
+    if (out != null) {
+      StringBuilder msg = new StringBuilder();
+      for (int i = startIndex; i < communityCards.size(); i++) {
+        msg.append(communityCards.get(i).toString()).append(' ');
+      }
+      out.println(msg);
     }
-    System.out.println(msg);
   }
 
   public void printPlayersCards() {
-    for (Player player : players) {
-      player.printHand();
+    if (out != null) {
+      for (Player player : players) {
+        out.println(player.getName() + "'s cards: " + player.handToString());
+      }
     }
   }
 
   /* Deal community card. */
-  private void dealCard() {
-    Card newCard = deck.drawCard();
+  private void dealCard()
+    { dealCard(deck.drawCard()); }
+
+  /* Deal card to specific player. */
+  private void dealCard(int player)
+    { dealCard(player, deck.drawCard()); }
+
+  private void dealCard(Card newCard) {
     if (newCard != null) {
       communityCards.add(newCard);
+      hands.addCommunityCard(newCard);
     }
   }
 
-  /* Deal card to specific player. */
-  private void dealCard(int player) {
-    Card newCard = deck.drawCard();
+  private void dealCard(int player, Card newCard) {
     if (newCard != null) {
       players.get(player).receiveCard(newCard);
+      hands.addHoleCard(player, newCard);
     }
   }
 
-  private ArrayList<Integer> getAllWinners() {
-    int x;
-    int lowestDegree;
-    int tmpDegree;
-    Rank highestRank;
-    Rank tmpRank;
-    ArrayList<Integer> listOfWinners = new ArrayList<>();
-
-    x = 0;
-
-    lowestDegree = new Rank(communityCards, players.get(x).getHand()).getDegree();
-    highestRank = new Rank(communityCards, players.get(x).getHand());
-    listOfWinners.add(x);
-
-    for (int i = x+1; i < players.size(); i++) {
-      tmpRank = new Rank(communityCards, players.get(i).getHand());
-      tmpDegree = tmpRank.getDegree();
-
-      /* Current player with highest hand. */
-      if (tmpDegree < lowestDegree) {
-        listOfWinners.clear();
-        listOfWinners.add(i);
-        lowestDegree = tmpDegree;
-        highestRank = tmpRank;
+  /* Fill listOfWinners with the players holding the strongest hand that
+     did not fold, and listOfAllWinners with those holding the strongest
+     hand folded or not. Both come from one score per seat. */
+  private void findWinners(ArrayList<Integer> listOfWinners, ArrayList<Integer> listOfAllWinners) {
+    int highestStrength = 0;
+    int highestStrengthOfAll = 0;
+    listOfWinners.clear();
+    listOfAllWinners.clear();
+
+    for (int i = 0; i < players.size(); i++) {
+      int strength = hands.getStrength(i);
+      if (strength > highestStrengthOfAll) {
+        listOfAllWinners.clear();
+        listOfAllWinners.add(i);
+        highestStrengthOfAll = strength;
       }
-      /* Tie with Straights? */
-      else if (tmpDegree == lowestDegree && lowestDegree == 5) {
-        /* Include comparisons of 1-5 straight vs regular straight.
-         * In this case we need to compare the lowest cards because Ace will be the highest as
-         * a false positive.
-         */
-        if (Rank.getLowestCard(tmpRank.getCards()).getValue() > Rank.getLowestCard(highestRank.getCards()).getValue()) {
-          listOfWinners.clear();
-          listOfWinners.add(i);
-          lowestDegree = tmpDegree;
-          highestRank = tmpRank;
-        }
+      else if (strength == highestStrengthOfAll) {
+        listOfAllWinners.add(i);
       }
-      /* Tie? */
-      else if (tmpDegree == lowestDegree) {
-        if (tmpRank.getCards().get(0).getValue() > highestRank.getCards().get(0).getValue()) {
+      if (!players.get(i).hasFolded()) {
+        if (strength > highestStrength) {
           listOfWinners.clear();
           listOfWinners.add(i);
-          lowestDegree = tmpDegree;
-          highestRank = tmpRank;
+          highestStrength = strength;
         }
-        else if (tmpRank.getCards().get(0).getValue() == highestRank.getCards().get(0).getValue()) {
-          if (tmpRank.getCards().size() >= 4 && highestRank.getCards().size() >= 4) {
-            if (tmpRank.getCards().get(3).getValue() > highestRank.getCards().get(3).getValue()) {
-              listOfWinners.clear();
-              listOfWinners.add(i);
-              lowestDegree = tmpDegree;
-              highestRank = tmpRank;
-            }
-            else if (tmpRank.getCards().get(3).getValue() == highestRank.getCards().get(3).getValue()) {
-              listOfWinners.add(i);
-            }
-          }
-          else {
-            listOfWinners.add(i);
-          }
+        else if (strength == highestStrength) {
+          listOfWinners.add(i);
         }
       }
     }
-
-    return listOfWinners;
   }
 
-  private ArrayList<Integer> getWinners() {
-    int x;
-    int lowestDegree;
-    int tmpDegree;
-    Rank highestRank;
-    Rank tmpRank;
-    ArrayList<Integer> listOfWinners = new ArrayList<>();
-
-    /* Find first player that hasn't folded. */
-    for (x = 0; x < players.size(); x++) {
-      if (!players.get(x).hasFolded()) {
-        break;
-      }
-    }
+  /* What a Strategy sees of this game. */
+  private final class GameView implements Strategy.View {
 
-    if (x == players.size()) {
-      return listOfWinners;
-    }
+    @Override
+    public int getNumberOfPlayers()
+      { return players.size(); }
 
-    lowestDegree = new Rank(communityCards, players.get(x).getHand()).getDegree();
-    highestRank = new Rank(communityCards, players.get(x).getHand());
-    listOfWinners.add(x);
+    @Override
+    public long getGameNumber()
+      { return gameNumber; }
 
-    for (int i = x+1; i < players.size(); i++) {
-      if (!players.get(i).hasFolded()) {
-        tmpRank = new Rank(communityCards, players.get(i).getHand());
-        tmpDegree = tmpRank.getDegree();
+    @Override
+    public long getBoard()
+      { return hands.getBoard(); }
 
-        /* Current player with highest hand. */
-        if (tmpDegree < lowestDegree) {
-          listOfWinners.clear();
-          listOfWinners.add(i);
-          lowestDegree = tmpDegree;
-          highestRank = tmpRank;
-        }
-        /* Tie with Straights? */
-        else if (tmpDegree == lowestDegree && lowestDegree == 5) {
-          /* Include comparisons of 1-5 straight vs regular straight.
-           * In this case we need to compare the lowest cards because Ace will be the highest as
-           * a false positive.
-           */
-          if (Rank.getLowestCard(tmpRank.getCards()).getValue() > Rank.getLowestCard(highestRank.getCards()).getValue()) {
-            listOfWinners.clear();
-            listOfWinners.add(i);
-            lowestDegree = tmpDegree;
-            highestRank = tmpRank;
-          }
-        }
-        /* Tie? */
-        else if (tmpDegree == lowestDegree) {
-          if (tmpRank.getCards().get(0).getValue() > highestRank.getCards().get(0).getValue()) {
-            listOfWinners.clear();
-            listOfWinners.add(i);
-            lowestDegree = tmpDegree;
-            highestRank = tmpRank;
-          }
-          else if (tmpRank.getCards().get(0).getValue() == highestRank.getCards().get(0).getValue()) {
-            if (tmpRank.getCards().size() >= 4 && highestRank.getCards().size() >= 4) {
-              if (tmpRank.getCards().get(3).getValue() > highestRank.getCards().get(3).getValue()) {
-                listOfWinners.clear();
-                listOfWinners.add(i);
-                lowestDegree = tmpDegree;
-                highestRank = tmpRank;
-              }
-              else if (tmpRank.getCards().get(3).getValue() == highestRank.getCards().get(3).getValue()) {
-                listOfWinners.add(i);
-              }
-            }
-            else {
-              listOfWinners.add(i);
-            }
-          }
-        }
-      }
-    }
+    @Override
+    public long getHoleCards(int seat)
+      { return hands.getHoleCards(seat); }
+
+    @Override
+    public boolean hasFolded(int seat)
+      { return players.get(seat).hasFolded(); }
+
+    @Override
+    public int getStrength(int seat)
+      { return hands.getStrength(seat); }
+
+    @Override
+    public long getStack(int seat)
+      { return (stacks != null) ? stacks[seat % stacks.length] : 0; }
 
-    return listOfWinners;
   }
 
 }
@@ -0,0 +1,74 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* GameRandom.java */
+
+import java.util.random.RandomGenerator;
+
+/*
+    Counter-based random numbers: every game of a simulation has its own
+    stream, keyed by the simulation seed and the game number, so any game
+    can be dealt again without playing the games before it, and a game's
+    cards do not depend on which thread plays it.
+
+    setGame() jumps to the start of a game's stream by mixing seed and
+    game number with the SplitMix64 finalizer. Numbers are then drawn
+    with SplitMix64 from there: add a constant to a plain long and mix
+    it, with no atomic update as in java.util.Random. nextInt(bound) uses
+    Lemire's multiply-and-shift, which is unbiased and only divides on
+    the rare rejection path.
+
+    A GameRandom is not thread safe; each worker has its own.
+*/
+
+public final class GameRandom implements RandomGenerator {
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private long seed;
+  private long state;
+
+  public GameRandom(long seed) {
+    this.seed = seed;
+    setGame(0);
+  }
+
+  public long getSeed()
+    { return seed; }
+
+  /* Start the stream of specified game. */
+  public void setGame(long gameNumber)
+    { state = mix(seed + mix(gameNumber + 1) * GOLDEN_GAMMA); }
+
+  @Override
+  public long nextLong() {
+    state += GOLDEN_GAMMA;
+    return mix(state);
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("Bound must be positive.");
+    }
+    long product = (nextLong() >>> 32) * bound;
+    long low = product & 0xFFFFFFFFL;
+    if (low < bound) {
+      long threshold = (0x100000000L - bound) % bound;
+      while (low < threshold) {
+        product = (nextLong() >>> 32) * bound;
+        low = product & 0xFFFFFFFFL;
+      }
+    }
+    return (int)(product >>> 32);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+}
@@ -0,0 +1,320 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* HandEvaluator.java */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+    Table-driven evaluator for 5 to 7 cards.
+
+    Cards are held in a CardSet, a long with one 16-bit lane per suit. A
+    hand is scored in two parts:
+
+    - Values only: every multiset of values (each value at most 4 times) is
+      a state in a small automaton. Adding a card is one read of NEXT and
+      the finished state is looked up in VALUES.
+    - Flushes: a suit lane with 5 or more bits is looked up in FLUSHES.
+
+    The result is the strength of the best 5-card hand, from 1 (7-5-4-3-2
+    offsuit) to 7462 (Royal Flush). Higher is better, equal strengths tie.
+    All tables are built once when the class is loaded.
+*/
+
+public final class HandEvaluator {
+
+  public static final int NUMBER_OF_HAND_CLASSES = 7462;
+
+  /* Categories in ascending order of strength. */
+  public static final int HIGH_CARD       = 0;
+  public static final int ONE_PAIR        = 1;
+  public static final int TWO_PAIR        = 2;
+  public static final int THREE_OF_A_KIND = 3;
+  public static final int STRAIGHT        = 4;
+  public static final int FLUSH           = 5;
+  public static final int FULL_HOUSE      = 6;
+  public static final int FOUR_OF_A_KIND  = 7;
+  public static final int STRAIGHT_FLUSH  = 8;
+
+  private static final int NUMBER_OF_VALUES = 13;
+  private static final int SUIT_MASK = 0x1FFF;
+
+  private static final int[] PATTERNS;    /* 5-card pattern of each strength */
+  private static final int[] NEXT;        /* value multiset automaton */
+  private static final short[] VALUES;    /* strength of each state, 0 below 5 cards */
+  private static final short[] FLUSHES;   /* strength of best flush in a suit lane */
+
+  static {
+    Builder builder = new Builder();
+    PATTERNS = builder.patterns;
+    NEXT     = builder.next;
+    VALUES   = builder.values;
+    FLUSHES  = builder.flushes;
+  }
+
+  private HandEvaluator() {
+  }
+
+  /* Return strength of the best 5-card hand among 5 to 7 cards. */
+  public static int evaluate(long cards)
+    { return evaluate(addCards(0, cards), cards); }
+
+  /* Return value state after adding cards to a state (0 for no cards).
+     A board's state can be shared by every player and completed with
+     their hole cards, as long as no state holds more than 7 cards. */
+  public static int addCards(int state, long cards) {
+    for (long m = cards; m != 0; m &= m - 1) {
+      state = NEXT[state * NUMBER_OF_VALUES + (Long.numberOfTrailingZeros(m) & 15)];
+    }
+    return state;
+  }
+
+  /* Return value state after adding one card to a state. */
+  public static int addCard(int state, Card card)
+    { return NEXT[state * NUMBER_OF_VALUES + card.getValue() - 2]; }
+
+  /* Return value state after adding a card of specified value (0 = 2 ...
+     12 = Ace) to a state. */
+  public static int addValue(int state, int value)
+    { return NEXT[state * NUMBER_OF_VALUES + value]; }
+
+  /* Return strength of 5 to 7 cards whose value state is already known. */
+  public static int evaluate(int state, long cards) {
+    int strength = VALUES[state];
+    for (int suit = 1; suit < Card.SUITS.length; suit++) {
+      int suitCards = CardSet.getSuitMask(cards, suit);
+      if (Integer.bitCount(suitCards) >= 5 && FLUSHES[suitCards] > strength) {
+        strength = FLUSHES[suitCards];
+      }
+    }
+    return strength;
+  }
+
+  /* Return strength of 5 to 7 cards whose value state is already known
+     and of which only specified suit can hold a flush (0 if none can). */
+  public static int evaluate(int state, long cards, int flushSuit) {
+    int strength = VALUES[state];
+    if (flushSuit != 0) {
+      int suitCards = CardSet.getSuitMask(cards, flushSuit);
+      if (Integer.bitCount(suitCards) >= 5 && FLUSHES[suitCards] > strength) {
+        strength = FLUSHES[suitCards];
+      }
+    }
+    return strength;
+  }
+
+  public static int evaluate(ArrayList<Card> communityCards, ArrayList<Card> playersCards)
+    { return evaluate(CardSet.fromList(communityCards) | CardSet.fromList(playersCards)); }
+
+  /* Tables shared with the BatchEvaluator kernels, which must only read them. */
+  static int[] getNextTable()
+    { return NEXT; }
+
+  static short[] getValueTable()
+    { return VALUES; }
+
+  static short[] getFlushTable()
+    { return FLUSHES; }
+
+  public static int getCategory(int strength)
+    { return PATTERNS[strength] >>> 20; }
+
+  /* Return value (2-14) of the n-th most significant card of a strength.
+     Straights only carry their highest card (5 for a 1-5 straight). */
+  public static int getPatternValue(int strength, int n)
+    { return ((PATTERNS[strength] >>> (16 - 4 * n)) & 15) + 2; }
+
+  /*
+   * Table construction.
+   *
+   * A pattern is the category in bits 20 and up followed by up to five
+   * values (0-12) in 4-bit groups, most significant first. Groups are
+   * ordered by how many cards share the value and then by value, so
+   * comparing two patterns as ints compares the hands.
+   */
+  private static final class Builder {
+
+    private int[] patterns;
+    private int[] next;
+    private short[] values;
+    private short[] flushes;
+
+    private Builder() {
+      patterns = buildPatterns();
+
+      /* Value multisets of each size, sorted so they can be found by
+         binary search. States are numbered level by level. */
+      long[][] levels = new long[8][];
+      int[] offsets = new int[9];
+      levels[0] = new long[1];
+      offsets[1] = 1;
+      for (int size = 1; size <= 7; size++) {
+        long[] level = new long[levels[size - 1].length * NUMBER_OF_VALUES];
+        int n = 0;
+        for (long key : levels[size - 1]) {
+          for (int v = 0; v < NUMBER_OF_VALUES; v++) {
+            if (getCount(key, v) < 4) {
+              level[n++] = key + (1L << (3 * v));
+            }
+          }
+        }
+        Arrays.sort(level, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+          if (unique == 0 || level[i] != level[unique - 1]) {
+            level[unique++] = level[i];
+          }
+        }
+        levels[size] = Arrays.copyOf(level, unique);
+        offsets[size + 1] = offsets[size] + unique;
+      }
+
+      /* A 6 or 7 card state is worth the best of the states it was
+         reached from, so only 5 card states are scored directly. */
+      next   = new int[offsets[8] * NUMBER_OF_VALUES];
+      values = new short[offsets[8]];
+      int[] hand = new int[5];
+      for (int size = 0; size < 7; size++) {
+        for (int i = 0; i < levels[size].length; i++) {
+          long key = levels[size][i];
+          int state = offsets[size] + i;
+          if (size == 5) {
+            int n = 0;
+            for (int v = NUMBER_OF_VALUES - 1; v >= 0; v--) {
+              for (int c = getCount(key, v); c > 0; c--) {
+                hand[n++] = v;
+              }
+            }
+            values[state] = (short)getStrength(getPattern(hand, false));
+          }
+          for (int v = 0; v < NUMBER_OF_VALUES; v++) {
+            if (getCount(key, v) < 4) {
+              int child = offsets[size + 1]
+                + Arrays.binarySearch(levels[size + 1], key + (1L << (3 * v)));
+              next[state * NUMBER_OF_VALUES + v] = child;
+              if (values[state] > values[child]) {
+                values[child] = values[state];
+              }
+            }
+          }
+        }
+      }
+
+      flushes = new short[SUIT_MASK + 1];
+      for (int mask = 0; mask <= SUIT_MASK; mask++) {
+        int bits = Integer.bitCount(mask);
+        if (bits == 5) {
+          int n = 0;
+          for (int v = NUMBER_OF_VALUES - 1; v >= 0; v--) {
+            if ((mask & (1 << v)) != 0) {
+              hand[n++] = v;
+            }
+          }
+          flushes[mask] = (short)getStrength(getPattern(hand, true));
+        }
+        else if (bits == 6 || bits == 7) {
+          for (int m = mask; m != 0; m &= m - 1) {
+            int parent = mask & ~Integer.lowestOneBit(m);
+            if (flushes[parent] > flushes[mask]) {
+              flushes[mask] = flushes[parent];
+            }
+          }
+        }
+      }
+    }
+
+    private int[] buildPatterns() {
+      int[] patterns = new int[NUMBER_OF_HAND_CLASSES + 1];
+      int[] values = new int[5];
+      int n = 1;
+
+      /* Non-flush hands: every multiset of 5 values. */
+      for (int a = 0; a < NUMBER_OF_VALUES; a++) {
+        for (int b = a; b < NUMBER_OF_VALUES; b++) {
+          for (int c = b; c < NUMBER_OF_VALUES; c++) {
+            for (int d = c; d < NUMBER_OF_VALUES; d++) {
+              for (int e = d; e < NUMBER_OF_VALUES; e++) {
+                if (a == e) {
+                  continue; /* five of a kind */
+                }
+                values[0] = e; values[1] = d; values[2] = c; values[3] = b; values[4] = a;
+                patterns[n++] = getPattern(values, false);
+                if (a != b && b != c && c != d && d != e) {
+                  patterns[n++] = getPattern(values, true);
+                }
+              }
+            }
+          }
+        }
+      }
+
+      Arrays.sort(patterns, 1, patterns.length);
+      return patterns;
+    }
+
+    private int getStrength(int pattern)
+      { return Arrays.binarySearch(patterns, 1, patterns.length, pattern); }
+
+    /* Return pattern of 5 values sorted in descending order. */
+    private int getPattern(int[] values, boolean isFlush) {
+      int[] counts = new int[NUMBER_OF_VALUES];
+      for (int v : values) {
+        counts[v]++;
+      }
+
+      boolean isStraight = false;
+      int top = values[0];
+      if (counts[values[0]] == 1 && counts[values[1]] == 1 && counts[values[2]] == 1
+          && counts[values[3]] == 1 && counts[values[4]] == 1) {
+        if (values[0] - values[4] == 4) {
+          isStraight = true;
+        }
+        else if (values[0] == 12 && values[1] == 3) { /* 1-5 straight */
+          isStraight = true;
+          top = 3;
+        }
+      }
+
+      int category;
+      int pattern = 0;
+      int shift = 16;
+      if (isStraight) {
+        category = isFlush ? STRAIGHT_FLUSH : STRAIGHT;
+        pattern = top << shift;
+      }
+      else {
+        int maxCount = 0;
+        int pairs = 0;
+        for (int count = 4; count >= 1; count--) {
+          for (int v = NUMBER_OF_VALUES - 1; v >= 0; v--) {
+            if (counts[v] == count) {
+              pattern |= v << shift;
+              shift -= 4;
+              maxCount = Math.max(maxCount, count);
+              if (count == 2) {
+                pairs++;
+              }
+            }
+          }
+        }
+        if (isFlush)                          { category = FLUSH; }
+        else if (maxCount == 4)               { category = FOUR_OF_A_KIND; }
+        else if (maxCount == 3 && pairs == 1) { category = FULL_HOUSE; }
+        else if (maxCount == 3)               { category = THREE_OF_A_KIND; }
+        else if (pairs == 2)                  { category = TWO_PAIR; }
+        else if (pairs == 1)                  { category = ONE_PAIR; }
+        else                                  { category = HIGH_CARD; }
+      }
+
+      return (category << 20) | pattern;
+    }
+
+    private int getCount(long key, int value)
+      { return (int)(key >>> (3 * value)) & 7; }
+
+  }
+
+}
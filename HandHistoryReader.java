@@ -0,0 +1,103 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* HandHistoryReader.java */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+    Reads a file written by HandHistoryWriter. Records are read through
+    read-only memory-mapped windows of the file, either one record at a
+    time with read() or a chunk of records at a time with map().
+*/
+
+public final class HandHistoryReader implements Closeable {
+
+  private static final int WINDOW_SIZE = 1 << 16; /* records */
+
+  private FileChannel channel;
+  private long numberOfRecords;
+  private long[] stacks; /* of each seat, null when not played for chips */
+  private ByteBuffer window;
+  private long windowStart;
+
+  public HandHistoryReader(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    ByteBuffer header = ByteBuffer.allocate(HandHistoryWriter.HEADER_SIZE);
+    int bytesRead;
+    do {
+      bytesRead = channel.read(header, header.position());
+    } while (bytesRead > 0 && header.hasRemaining());
+    if (header.hasRemaining() || header.getInt(0) != HandHistoryWriter.MAGIC
+        || header.getInt(4) != HandHistoryWriter.VERSION || header.getInt(8) != HandRecord.SIZE) {
+      channel.close();
+      throw new IOException(path + " is not a hand history file.");
+    }
+    numberOfRecords = (channel.size() - HandHistoryWriter.HEADER_SIZE) / HandRecord.SIZE;
+    if (header.getLong(16) != 0) {
+      stacks = new long[Game.MAX_PLAYERS];
+      for (int seat = 0; seat < stacks.length; seat++) {
+        stacks[seat] = header.getLong(16 + 8 * seat);
+      }
+    }
+    windowStart     = -1;
+  }
+
+  public long getNumberOfRecords()
+    { return numberOfRecords; }
+
+  /* Return the stack of each seat the games were played for, null for no
+     chips. */
+  public long[] getStacks()
+    { return stacks; }
+
+  /* Map records [firstRecord, firstRecord + count) read-only. Record i of
+     the chunk starts at offset i * HandRecord.SIZE. */
+  public ByteBuffer map(long firstRecord, int count) throws IOException {
+    count = (int)Math.min(count, numberOfRecords - firstRecord);
+    return channel.map(FileChannel.MapMode.READ_ONLY,
+      HandHistoryWriter.HEADER_SIZE + firstRecord * HandRecord.SIZE, (long)count * HandRecord.SIZE);
+  }
+
+  /* Load record with specified index into record. */
+  public void read(long index, HandRecord record) throws IOException {
+    if (windowStart < 0 || index < windowStart || index >= windowStart + WINDOW_SIZE) {
+      windowStart = index - (index % WINDOW_SIZE);
+      window = map(windowStart, WINDOW_SIZE);
+    }
+    record.read(window, (int)(index - windowStart) * HandRecord.SIZE);
+  }
+
+  @Override
+  public void close() throws IOException
+    { channel.close(); }
+
+  /* Print records of a hand history: java HandHistoryReader <file> [first] [count] */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: java HandHistoryReader <file> [first] [count]");
+      return;
+    }
+    try (HandHistoryReader reader = new HandHistoryReader(Paths.get(args[0]))) {
+      long first = (args.length >= 2) ? Long.parseLong(args[1]) : 0;
+      long count = (args.length >= 3) ? Long.parseLong(args[2]) : 10;
+      HandRecord record = new HandRecord();
+      System.out.println(reader.getNumberOfRecords() + " games"
+        + ((reader.getStacks() != null) ? " for stacks " + Arrays.toString(reader.getStacks()) : ""));
+      for (long i = first; i < Math.min(first + count, reader.getNumberOfRecords()); i++) {
+        reader.read(i, record);
+        System.out.println(record);
+      }
+    }
+  }
+
+}
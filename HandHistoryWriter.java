@@ -0,0 +1,82 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* HandHistoryWriter.java */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+    Writes a hand history file: a header followed by one HandRecord per
+    game, in game number order.
+
+    Header (big-endian):
+      int   MAGIC
+      int   VERSION
+      int   HandRecord.SIZE
+      int   0
+      long  stack of each of Game.MAX_PLAYERS seats (all 0 when not
+            played for chips), so Replay can pay out the all-ins again
+
+    Workers fill their own buffer with the records of consecutive games
+    and hand it over in one call. Because records are fixed-width, each
+    buffer is written straight to its place in the file with a positional
+    write, so workers never wait for each other and the file is the same
+    whatever order they finish in.
+*/
+
+public final class HandHistoryWriter implements Closeable {
+
+  public static final int MAGIC       = 0x48485354; /* "HHST" */
+  public static final int VERSION     = 2; /* stacks */
+  public static final int HEADER_SIZE = 16 + 8 * Game.MAX_PLAYERS;
+
+  private FileChannel channel;
+
+  public HandHistoryWriter(Path path) throws IOException {
+    this(path, false, null);
+  }
+
+  /* Open path, keeping the records already in it if keepRecords is set
+     (to fill in the rest of a resumed simulation). stacks are the stacks
+     the games are played for, as in Game.setStacks() (null for none). */
+  public HandHistoryWriter(Path path, boolean keepRecords, long[] stacks) throws IOException {
+    channel = keepRecords
+      ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+      : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putInt(HandRecord.SIZE).putInt(0);
+    for (int seat = 0; seat < Game.MAX_PLAYERS; seat++) {
+      header.putLong((stacks != null) ? stacks[seat % stacks.length] : 0);
+    }
+    header.flip();
+    writeAt(header, 0);
+  }
+
+  /* Return a buffer large enough for specified number of records. */
+  public static ByteBuffer allocate(int numberOfRecords)
+    { return ByteBuffer.allocateDirect(numberOfRecords * HandRecord.SIZE); }
+
+  /* Write records (position to limit of buffer) of consecutive games
+     starting at specified game number. */
+  public void write(ByteBuffer records, long firstGameNumber) throws IOException
+    { writeAt(records, HEADER_SIZE + firstGameNumber * HandRecord.SIZE); }
+
+  @Override
+  public void close() throws IOException
+    { channel.close(); }
+
+  private void writeAt(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+}
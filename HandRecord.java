@@ -0,0 +1,147 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* HandRecord.java */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/*
+    One game of a hand history as a fixed-width 40 byte record, one byte
+    per card (Card.getIndex(), NO_CARD if not dealt):
+
+      0  long  simulation seed
+      8  long  game number
+     16  byte  number of players
+     17  byte  folds   (bit n set if seat n folded)
+     18  byte  winners (bit n set if seat n won)
+     19  byte  community cards [5]
+     24  byte  hole cards [8 seats][2]
+
+    A HandRecord is meant to be reused: read() overwrites every field.
+*/
+
+public final class HandRecord {
+
+  public static final int SIZE = 40;
+
+  private static final byte NO_CARD = (byte)0xFF;
+  private static final int BOARD_SIZE = 5;
+
+  private long seed;
+  private long gameNumber;
+  private int numberOfPlayers;
+  private int folds;
+  private int winners;
+  private byte[] communityCards;
+  private byte[] holeCards;
+
+  public HandRecord() {
+    communityCards = new byte[BOARD_SIZE];
+    holeCards      = new byte[2 * Game.MAX_PLAYERS];
+  }
+
+  /* Append a record of a finished game to buffer. */
+  public static void put(ByteBuffer buffer, long seed, long gameNumber, ArrayList<Player> players,
+      ArrayList<Card> communityCards, ArrayList<Integer> listOfWinners) {
+    int folds = 0;
+    int winners = 0;
+    for (int i = 0; i < players.size(); i++) {
+      if (players.get(i).hasFolded()) {
+        folds |= 1 << i;
+      }
+    }
+    for (int i = 0; i < listOfWinners.size(); i++) {
+      winners |= 1 << listOfWinners.get(i);
+    }
+
+    buffer.putLong(seed);
+    buffer.putLong(gameNumber);
+    buffer.put((byte)players.size());
+    buffer.put((byte)folds);
+    buffer.put((byte)winners);
+    for (int i = 0; i < BOARD_SIZE; i++) {
+      buffer.put(i < communityCards.size() ? (byte)communityCards.get(i).getIndex() : NO_CARD);
+    }
+    for (int seat = 0; seat < Game.MAX_PLAYERS; seat++) {
+      for (int i = 0; i < 2; i++) {
+        ArrayList<Card> hand = (seat < players.size()) ? players.get(seat).getHand() : null;
+        buffer.put((hand != null && i < hand.size()) ? (byte)hand.get(i).getIndex() : NO_CARD);
+      }
+    }
+  }
+
+  /* Load the record starting at specified offset of buffer. */
+  public void read(ByteBuffer buffer, int offset) {
+    seed            = buffer.getLong(offset);
+    gameNumber      = buffer.getLong(offset + 8);
+    numberOfPlayers = buffer.get(offset + 16);
+    folds           = buffer.get(offset + 17) & 0xFF;
+    winners         = buffer.get(offset + 18) & 0xFF;
+    for (int i = 0; i < BOARD_SIZE; i++) {
+      communityCards[i] = buffer.get(offset + 19 + i);
+    }
+    for (int i = 0; i < holeCards.length; i++) {
+      holeCards[i] = buffer.get(offset + 24 + i);
+    }
+  }
+
+  public long getSeed()
+    { return seed; }
+
+  public long getGameNumber()
+    { return gameNumber; }
+
+  public int getNumberOfPlayers()
+    { return numberOfPlayers; }
+
+  public boolean hasFolded(int seat)
+    { return (folds & (1 << seat)) != 0; }
+
+  public boolean isWinner(int seat)
+    { return (winners & (1 << seat)) != 0; }
+
+  public int getNumberOfCommunityCards() {
+    int n = 0;
+    while (n < BOARD_SIZE && communityCards[n] != NO_CARD) {
+      n++;
+    }
+    return n;
+  }
+
+  /* Return community card (0-4), or null if it was not dealt. */
+  public Card getCommunityCard(int i)
+    { return toCard(communityCards[i]); }
+
+  /* Return hole card (0-1) of seat, or null if it was not dealt. */
+  public Card getHoleCard(int seat, int i)
+    { return toCard(holeCards[2 * seat + i]); }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder();
+    s.append("Game ").append(gameNumber).append(" (seed ").append(seed).append(")\n");
+    for (int seat = 0; seat < numberOfPlayers; seat++) {
+      s.append("  Seat ").append(seat + 1).append(": ");
+      s.append(getHoleCard(seat, 0)).append(' ').append(getHoleCard(seat, 1));
+      if (hasFolded(seat)) {
+        s.append(" folded");
+      }
+      if (isWinner(seat)) {
+        s.append(" won");
+      }
+      s.append('\n');
+    }
+    s.append("  Board:");
+    for (int i = 0; i < getNumberOfCommunityCards(); i++) {
+      s.append(' ').append(getCommunityCard(i));
+    }
+    return s.toString();
+  }
+
+  private static Card toCard(byte index)
+    { return (index == NO_CARD) ? null : Card.getCard(index); }
+
+}
@@ -0,0 +1,114 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* LatencyHistogram.java */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+    Histogram of durations in nanoseconds, laid out like HdrHistogram:
+    values below SUB_BUCKETS get a bucket each, and every power of two
+    above that is split into SUB_BUCKETS linear buckets, so any value is
+    known to within 1/SUB_BUCKETS (6.25%) with a fixed array of counts.
+
+    A histogram has one writer. record() is a plain read and a release
+    store of one count, so it is cheap on the writer's thread, and any
+    other thread can read counts while it is written.
+*/
+
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS   = 4;
+  private static final int SUB_BUCKETS       = 1 << SUB_BUCKET_BITS;
+  private static final int NUMBER_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private AtomicLongArray counts;
+
+  public LatencyHistogram() {
+    counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+  }
+
+  /* Count one duration. Only the histogram's writer may call this. */
+  public void record(long nanos) {
+    int bucket = getBucket(Math.max(nanos, 0));
+    counts.setRelease(bucket, counts.getPlain(bucket) + 1);
+  }
+
+  /* Add every count of other to this histogram. */
+  public void add(LatencyHistogram other) {
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      long count = other.counts.get(bucket);
+      if (count != 0) {
+        counts.set(bucket, counts.get(bucket) + count);
+      }
+    }
+  }
+
+  public long getCount() {
+    long count = 0;
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      count += counts.get(bucket);
+    }
+    return count;
+  }
+
+  /* Return the highest value of the bucket holding the given percentile
+     (0-100) of the recorded durations, or 0 if none were recorded. */
+  public long getPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank) {
+        return getHighestValue(bucket);
+      }
+    }
+    return getHighestValue(NUMBER_OF_BUCKETS - 1);
+  }
+
+  public long getMax()
+    { return getPercentile(100); }
+
+  /* Return the mean, taking each duration as the middle of its bucket. */
+  public double getMean() {
+    long count = 0;
+    double sum = 0;
+    for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+      long bucketCount = counts.get(bucket);
+      count += bucketCount;
+      sum += bucketCount * (getLowestValue(bucket) + getHighestValue(bucket)) / 2.0;
+    }
+    return (count == 0) ? 0 : sum / count;
+  }
+
+  private static int getBucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int)((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  private static long getLowestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    return (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+  }
+
+  private static long getHighestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    return getLowestValue(bucket) + (1L << shift) - 1;
+  }
+
+}
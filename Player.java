@@ -17,6 +17,7 @@ public final class Player {
   private String name;
   private Type type;
   private ArrayList<Card> hand;
+  private Strategy strategy;
 
   public Player(Type type, String name) {
     hasFolded = false;
@@ -25,6 +26,12 @@ public final class Player {
     this.name = name;
   }
 
+  /* Return cards and take part again, for a new game. */
+  public void reset() {
+    hasFolded = false;
+    hand.clear();
+  }
+
   public boolean hasFolded()
     { return hasFolded; }
 
@@ -40,6 +47,14 @@ public final class Player {
   public ArrayList<Card> getHand()
     { return hand; }
 
+  /* Return the strategy deciding for this player (for a HUMAN player
+     when the game has no listener to ask). */
+  public Strategy getStrategy()
+    { return strategy; }
+
+  public void setStrategy(Strategy strategy)
+    { this.strategy = strategy; }
+
   public int getNumberOfCards()
     { return hand.size(); }
 
@@ -50,11 +65,11 @@ public final class Player {
   }
 
   public String handToString() {
-    String s = "";
+    StringBuilder s = new StringBuilder();
     for (int i = 0; i < hand.size(); i++) {
-      s += hand.get(i).toString() + " ";
+      s.append(hand.get(i).toString()).append(' ');
     }
-    return s;
+    return s.toString();
   }
 
   public void printHand() {
@@ -0,0 +1,47 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* PreflopStrategy.java */
+
+/*
+    A cheap strategy that plays from a PreflopTable: stay in on the turn
+    if the hole cards' preflop equity against the number of other players
+    still in is at least an even share of the pot, and fold otherwise.
+
+    The board is ignored, so a decision is one table lookup instead of an
+    equity calculation. It is a baseline for EquityStrategy, which sees
+    the board, rather than a strong player.
+
+    Keeps no state between decisions, so one instance may be shared by
+    every Game of a simulation.
+*/
+
+public final class PreflopStrategy implements Strategy {
+
+  private PreflopTable table;
+
+  public PreflopStrategy(PreflopTable table) {
+    this.table = table;
+  }
+
+  @Override
+  public boolean staysIn(Strategy.View view, int seat) {
+    if (view.hasFolded(seat)) {
+      return false;
+    }
+    int numberOfOpponents = 0;
+    for (int s = 0; s < view.getNumberOfPlayers(); s++) {
+      if (s != seat && !view.hasFolded(s)) {
+        numberOfOpponents++;
+      }
+    }
+    if (numberOfOpponents == 0) {
+      return true;
+    }
+    int hand = PreflopTable.getHandIndex(view.getHoleCards(seat));
+    return table.getEquity(hand, numberOfOpponents) >= 1.0 / (numberOfOpponents + 1);
+  }
+
+}
@@ -0,0 +1,249 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* PreflopTable.java */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+/*
+    Equity of the 169 distinct starting hands against 1 to 7 random
+    opponents, all the way to the river.
+
+    Starting hands are numbered on a 13x13 grid of values (0 = 2 ... 12 = A):
+    pairs on the diagonal, suited hands at high*13+low and offsuit hands at
+    low*13+high.
+
+    File layout (big-endian):
+      int   MAGIC
+      int   VERSION
+      int   number of hands (169)
+      int   maximum number of opponents (7)
+      long  trials per entry
+      float equity[hand][opponents - 1]
+
+    The generator plays every entry as its own Monte Carlo run on the
+    common ForkJoinPool, dealt from the entry's own GameRandom stream
+    (the seed's stream of "game" number entry), so a table only depends
+    on its trials and seed. The loader maps the file read-only, so a
+    lookup is one read from the mapped buffer, and a loaded table may be
+    shared by threads. PreflopStrategy plays from it.
+*/
+
+public final class PreflopTable {
+
+  public static final int NUMBER_OF_HANDS = 169;
+  public static final int MAX_OPPONENTS   = Game.MAX_PLAYERS - 1;
+
+  private static final int MAGIC       = 0x50464551; /* "PFEQ" */
+  private static final int VERSION     = 1;
+  private static final int HEADER_SIZE = 24;
+  private static final int FILE_SIZE   = HEADER_SIZE + NUMBER_OF_HANDS * MAX_OPPONENTS * 4;
+
+  private static final String USAGE =
+      "Usage: java PreflopTable generate <file> [trials] [seed]\n"
+    + "       java PreflopTable print <file>";
+
+  private MappedByteBuffer table;
+
+  private PreflopTable(MappedByteBuffer table) {
+    this.table = table;
+  }
+
+  public static PreflopTable load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (channel.size() != FILE_SIZE || table.getInt(0) != MAGIC || table.getInt(4) != VERSION
+          || table.getInt(8) != NUMBER_OF_HANDS || table.getInt(12) != MAX_OPPONENTS) {
+        throw new IOException(path + " is not a preflop equity table.");
+      }
+      return new PreflopTable(table);
+    }
+  }
+
+  /* Return equity (0-1) of a starting hand index against 1-7 opponents. */
+  public double getEquity(int hand, int numberOfOpponents)
+    { return table.getFloat(getOffset(hand, numberOfOpponents)); }
+
+  public double getEquity(Card card1, Card card2, int numberOfOpponents)
+    { return getEquity(getHandIndex(card1, card2), numberOfOpponents); }
+
+  public long getNumberOfTrials()
+    { return table.getLong(16); }
+
+  /* Return starting hand index of two hole cards given as a CardSet. */
+  public static int getHandIndex(long holeCards) {
+    int highBit = 63 - Long.numberOfLeadingZeros(holeCards);
+    int lowBit  = Long.numberOfTrailingZeros(holeCards);
+    int high = Math.max(highBit & 15, lowBit & 15);
+    int low  = Math.min(highBit & 15, lowBit & 15);
+    if ((highBit >>> 4) == (lowBit >>> 4)) {
+      return high * 13 + low;
+    }
+    return low * 13 + high;
+  }
+
+  public static int getHandIndex(Card card1, Card card2) {
+    int high = Math.max(card1.getValue(), card2.getValue()) - 2;
+    int low  = Math.min(card1.getValue(), card2.getValue()) - 2;
+    if (card1.getSuit() == card2.getSuit()) {
+      return high * 13 + low;
+    }
+    return low * 13 + high;
+  }
+
+  /* Return name of a starting hand index, e.g. "AA", "AKs" or "T9o". */
+  public static String getHandName(int hand) {
+    String values = "23456789TJQKA";
+    int row = hand / 13;
+    int column = hand % 13;
+    if (row == column) {
+      return "" + values.charAt(row) + values.charAt(row);
+    }
+    if (row > column) {
+      return "" + values.charAt(row) + values.charAt(column) + "s";
+    }
+    return "" + values.charAt(column) + values.charAt(row) + "o";
+  }
+
+  /* Compute every entry with specified number of trials and write the table. */
+  public static void generate(Path path, int numberOfTrials, long seed) throws IOException {
+    float[] equities = new float[NUMBER_OF_HANDS * MAX_OPPONENTS];
+    new Generator(equities, numberOfTrials, seed, 0, equities.length).invoke();
+
+    ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(NUMBER_OF_HANDS).putInt(MAX_OPPONENTS);
+    buffer.putLong(numberOfTrials);
+    for (float equity : equities) {
+      buffer.putFloat(equity);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length >= 2 && args[0].equals("generate")) {
+      int numberOfTrials = (args.length >= 3) ? Integer.parseInt(args[2]) : 50000;
+      long seed = (args.length >= 4) ? Long.parseLong(args[3]) : new Random().nextLong();
+      generate(Paths.get(args[1]), numberOfTrials, seed);
+    }
+    else if (args.length == 2 && args[0].equals("print")) {
+      PreflopTable table = load(Paths.get(args[1]));
+      System.out.println("Equity against 1-" + MAX_OPPONENTS + " opponents ("
+        + table.getNumberOfTrials() + " trials each):");
+      for (int hand = 0; hand < NUMBER_OF_HANDS; hand++) {
+        System.out.printf("%-4s", getHandName(hand));
+        for (int opponents = 1; opponents <= MAX_OPPONENTS; opponents++) {
+          System.out.printf(" %5.1f%%", table.getEquity(hand, opponents) * 100);
+        }
+        System.out.println();
+      }
+    }
+    else {
+      System.out.println(USAGE);
+    }
+  }
+
+  private static int getOffset(int hand, int numberOfOpponents)
+    { return HEADER_SIZE + (hand * MAX_OPPONENTS + numberOfOpponents - 1) * 4; }
+
+  /* Plays entries [first, last), splitting the range until one is left. */
+  private static final class Generator extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private float[] equities;
+    private int numberOfTrials;
+    private long seed;
+    private int first;
+    private int last;
+
+    private Generator(float[] equities, int numberOfTrials, long seed, int first, int last) {
+      this.equities       = equities;
+      this.numberOfTrials = numberOfTrials;
+      this.seed           = seed;
+      this.first          = first;
+      this.last           = last;
+    }
+
+    @Override
+    protected void compute() {
+      if (last - first > 1) {
+        int middle = (first + last) >>> 1;
+        invokeAll(new Generator(equities, numberOfTrials, seed, first, middle),
+          new Generator(equities, numberOfTrials, seed, middle, last));
+        return;
+      }
+      GameRandom random = new GameRandom(seed);
+      for (int entry = first; entry < last; entry++) {
+        random.setGame(entry);
+        equities[entry] = (float)play(random, entry / MAX_OPPONENTS, entry % MAX_OPPONENTS + 1);
+      }
+    }
+
+    private double play(GameRandom random, int hand, int numberOfOpponents) {
+      int row = hand / 13;
+      int column = hand % 13;
+      Card card1 = Card.getCard(Math.max(row, column) + 2, 1);
+      Card card2 = Card.getCard(Math.min(row, column) + 2, (row > column) ? 1 : 2);
+      long holeCards = card1.getMask() | card2.getMask();
+
+      long[] deck = new long[Card.NUMBER_OF_CARDS - 2];
+      int n = 0;
+      for (int index = 0; index < Card.NUMBER_OF_CARDS; index++) {
+        long card = Card.getCard(index).getMask();
+        if ((holeCards & card) == 0) {
+          deck[n++] = card;
+        }
+      }
+
+      int cardsNeeded = 5 + 2 * numberOfOpponents;
+      double share = 0;
+      for (int trial = 0; trial < numberOfTrials; trial++) {
+        /* Partial Fisher-Yates: deck[0..cardsNeeded) is the deal. */
+        for (int i = 0; i < cardsNeeded; i++) {
+          int j = i + random.nextInt(deck.length - i);
+          long card = deck[j];
+          deck[j] = deck[i];
+          deck[i] = card;
+        }
+        long board = deck[0] | deck[1] | deck[2] | deck[3] | deck[4];
+        int boardState = HandEvaluator.addCards(0, board);
+        int strength = HandEvaluator.evaluate(HandEvaluator.addCards(boardState, holeCards), board | holeCards);
+        int numberOfWinners = 1;
+        for (int i = 5; i < cardsNeeded; i += 2) {
+          long opponent = deck[i] | deck[i + 1];
+          int opponentStrength = HandEvaluator.evaluate(
+            HandEvaluator.addCards(boardState, opponent), board | opponent);
+          if (opponentStrength > strength) {
+            numberOfWinners = 0;
+            break;
+          }
+          if (opponentStrength == strength) {
+            numberOfWinners++;
+          }
+        }
+        if (numberOfWinners > 0) {
+          share += 1.0 / numberOfWinners;
+        }
+      }
+      return share / numberOfTrials;
+    }
+
+  }
+
+}
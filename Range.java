@@ -0,0 +1,151 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Range.java */
+
+/*
+    A weighted range of starting hands: every two-card combo a player may
+    hold and how likely they are to hold it. Ranges are written in the
+    usual shorthand, entries separated by commas:
+
+      AA        every pair of aces (6 combos)
+      QQ+       QQ, KK and AA
+      AK        AKs and AKo (16 combos)
+      AKs, AKo  suited (4 combos) or offsuit (12 combos) only
+      ATs+      ATs, AJs, AQs and AKs
+      AhKh      one specific combo
+      KQ:0.5    any entry with a weight (default 1)
+
+    A combo listed twice keeps its last weight. The tiers in the Rank.java
+    header read as-is, e.g. Range.parse("QQ, JJ, AK").
+*/
+
+public final class Range {
+
+  private static final int NUMBER_OF_COMBOS = Card.NUMBER_OF_CARDS * Card.NUMBER_OF_CARDS;
+
+  private double[] weights; /* by low card index * 52 + high card index */
+  private int numberOfCombos;
+
+  public Range() {
+    weights = new double[NUMBER_OF_COMBOS];
+  }
+
+  public static Range parse(String range) {
+    Range result = new Range();
+    for (String entry : range.split(",")) {
+      entry = entry.trim();
+      if (!entry.isEmpty()) {
+        result.addEntry(entry);
+      }
+    }
+    return result;
+  }
+
+  /* Add the combo of two cards with specified weight (0 removes it). */
+  public void add(Card card1, Card card2, double weight) {
+    if (card1 == card2 || !(weight >= 0) || Double.isInfinite(weight)) {
+      throw new IllegalArgumentException("A combo needs two different cards and a finite weight of at least 0.");
+    }
+    int combo = Math.min(card1.getIndex(), card2.getIndex()) * Card.NUMBER_OF_CARDS
+      + Math.max(card1.getIndex(), card2.getIndex());
+    if (weights[combo] == 0 && weight > 0) {
+      numberOfCombos++;
+    }
+    else if (weights[combo] > 0 && weight == 0) {
+      numberOfCombos--;
+    }
+    weights[combo] = weight;
+  }
+
+  public int getNumberOfCombos()
+    { return numberOfCombos; }
+
+  /* Return every combo of the range as a CardSet, in the order of getWeights(). */
+  public long[] getCombos() {
+    long[] combos = new long[numberOfCombos];
+    int n = 0;
+    for (int combo = 0; combo < NUMBER_OF_COMBOS; combo++) {
+      if (weights[combo] > 0) {
+        combos[n++] = Card.getCard(combo / Card.NUMBER_OF_CARDS).getMask()
+          | Card.getCard(combo % Card.NUMBER_OF_CARDS).getMask();
+      }
+    }
+    return combos;
+  }
+
+  public double[] getWeights() {
+    double[] result = new double[numberOfCombos];
+    int n = 0;
+    for (int combo = 0; combo < NUMBER_OF_COMBOS; combo++) {
+      if (weights[combo] > 0) {
+        result[n++] = weights[combo];
+      }
+    }
+    return result;
+  }
+
+  private void addEntry(String entry) {
+    double weight = 1;
+    int colon = entry.indexOf(':');
+    if (colon >= 0) {
+      try {
+        weight = Double.parseDouble(entry.substring(colon + 1).trim());
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid weight in range entry: " + entry);
+      }
+      entry = entry.substring(0, colon).trim();
+    }
+
+    /* One specific combo, e.g. AhKh. */
+    if (entry.length() == 4 && Card.parse(entry.substring(0, 2)) != null
+        && Card.parse(entry.substring(2)) != null) {
+      add(Card.parse(entry.substring(0, 2)), Card.parse(entry.substring(2)), weight);
+      return;
+    }
+
+    boolean plus = entry.endsWith("+");
+    String hand = plus ? entry.substring(0, entry.length() - 1) : entry;
+    int high = (hand.length() >= 2) ? Card.parseValue(hand.charAt(0)) : -1;
+    int low  = (hand.length() >= 2) ? Card.parseValue(hand.charAt(1)) : -1;
+    String suitedness = (hand.length() == 3) ? hand.substring(2).toLowerCase() : "";
+    if (low > high) {
+      int value = low;
+      low = high;
+      high = value;
+    }
+    if (low < 0 || hand.length() > 3 || !(suitedness.isEmpty() || suitedness.equals("s") || suitedness.equals("o"))
+        || (low == high && !suitedness.isEmpty())) {
+      throw new IllegalArgumentException("Invalid range entry: " + entry);
+    }
+
+    if (low == high) {
+      for (int value = low; value <= (plus ? 14 : low); value++) {
+        addValues(value, value, "", weight);
+      }
+    }
+    else {
+      for (int value = low; value <= (plus ? high - 1 : low); value++) {
+        addValues(high, value, suitedness, weight);
+      }
+    }
+  }
+
+  /* Add every combo of two values, suited ("s"), offsuit ("o") or both (""). */
+  private void addValues(int value1, int value2, String suitedness, double weight) {
+    for (int suit1 = 1; suit1 < Card.SUITS.length; suit1++) {
+      for (int suit2 = 1; suit2 < Card.SUITS.length; suit2++) {
+        boolean suited = (suit1 == suit2);
+        if ((value1 == value2 && suit1 >= suit2)
+            || (suited && suitedness.equals("o")) || (!suited && suitedness.equals("s"))) {
+          continue;
+        }
+        add(Card.getCard(value1, suit1), Card.getCard(value2, suit2), weight);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,416 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* RangeEquityCalculator.java */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.RecursiveTask;
+
+/*
+    Equity of ranges (see Range) against each other, given 0 to 5 known
+    community cards.
+
+    Every combination of one combo per player that shares no card with
+    another player or the board is a showdown, weighted by the product of
+    the combos' weights. Combos that hit the known board are dropped up
+    front, and combos that collide with each other or the runout are
+    skipped, so card removal is exact.
+
+    If there are at most MAX_EXACT_SHOWDOWNS showdowns the result is exact:
+    every runout is dealt as in EquityCalculator, split by its first card
+    across the common ForkJoinPool. Each runout scores every combo of every
+    range once, and all combinations of combos reuse those scores, so a
+    board costs one evaluation per combo rather than one per showdown.
+
+    Otherwise it is a Monte Carlo estimate: each trial draws one combo per
+    player by weight (starting over if two collide) and then a runout from
+    the cards left. Trials are split into chunks, each with its own Random
+    seeded from the seed and the chunk number, so a seed always gives the
+    same result.
+*/
+
+public final class RangeEquityCalculator {
+
+  public static final long MAX_EXACT_SHOWDOWNS = 200000000L;
+  public static final int DEFAULT_TRIALS = 1000000;
+
+  private static final int CHUNK_SIZE = 16384; /* trials */
+
+  private static final String USAGE =
+      "Usage: java RangeEquityCalculator <range> <range> [<range> ...] [--board=CARDS]"
+    + " [--trials=N] [--seed=N]\n"
+    + "  e.g. java RangeEquityCalculator \"AA, KK\" \"QQ, JJ, AK\" --board=Ah7d2c";
+
+  private RangeEquityCalculator() {
+  }
+
+  public static Equity calculate(ArrayList<Range> ranges, ArrayList<Card> communityCards)
+    { return calculate(ranges, communityCards, DEFAULT_TRIALS, new Random().nextLong()); }
+
+  /* Return equity of each range. Monte Carlo estimates play specified
+     number of trials from seed. */
+  public static Equity calculate(ArrayList<Range> ranges, ArrayList<Card> communityCards,
+      int numberOfTrials, long seed) {
+    long board = CardSet.fromList(communityCards);
+    if (ranges.size() < 1 || ranges.size() > Game.MAX_PLAYERS || communityCards.size() > 5
+        || CardSet.size(board) != communityCards.size()) {
+      throw new IllegalArgumentException("Need 1-" + Game.MAX_PLAYERS
+        + " ranges and up to 5 distinct community cards.");
+    }
+    if (numberOfTrials < 1) {
+      throw new IllegalArgumentException("Need at least 1 trial.");
+    }
+
+    /* Card removal by the board. */
+    long[][] combos = new long[ranges.size()][];
+    double[][] weights = new double[ranges.size()][];
+    for (int i = 0; i < ranges.size(); i++) {
+      long[] rangeCombos = ranges.get(i).getCombos();
+      double[] rangeWeights = ranges.get(i).getWeights();
+      int n = 0;
+      for (int c = 0; c < rangeCombos.length; c++) {
+        if ((rangeCombos[c] & board) == 0) {
+          rangeCombos[n] = rangeCombos[c];
+          rangeWeights[n] = rangeWeights[c];
+          n++;
+        }
+      }
+      combos[i] = Arrays.copyOf(rangeCombos, n);
+      weights[i] = Arrays.copyOf(rangeWeights, n);
+    }
+    if (!hasShowdown(combos, 0, board)) {
+      throw new IllegalArgumentException("The ranges cannot be dealt without sharing a card.");
+    }
+
+    long[] remainingCards = new long[Card.NUMBER_OF_CARDS - communityCards.size()];
+    int n = 0;
+    for (int index = 0; index < Card.NUMBER_OF_CARDS; index++) {
+      long card = Card.getCard(index).getMask();
+      if ((board & card) == 0) {
+        remainingCards[n++] = card;
+      }
+    }
+
+    int cardsToDeal = 5 - communityCards.size();
+    int boardState = HandEvaluator.addCards(0, board);
+    double showdowns = getNumberOfBoards(remainingCards.length, cardsToDeal);
+    for (long[] rangeCombos : combos) {
+      showdowns *= rangeCombos.length;
+    }
+
+    if (showdowns <= MAX_EXACT_SHOWDOWNS) {
+      Search search = new Search(combos, weights, remainingCards, cardsToDeal, board, boardState,
+        0, remainingCards.length);
+      if (cardsToDeal == 0) {
+        return search.enumerate(0, 1);
+      }
+      return search.invoke();
+    }
+    return new Sampler(combos, Sampler.getCumulativeWeights(weights), remainingCards, cardsToDeal,
+      board, boardState, seed, numberOfTrials, 0, (numberOfTrials + CHUNK_SIZE - 1) / CHUNK_SIZE).invoke();
+  }
+
+  public static void main(String[] args) {
+    ArrayList<Range> ranges = new ArrayList<>();
+    ArrayList<Card> communityCards = new ArrayList<>();
+    int numberOfTrials = DEFAULT_TRIALS;
+    long seed = new Random().nextLong();
+    try {
+      for (String arg : args) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.startsWith("--board=")) {
+          for (int i = 0; i + 2 <= value.length(); i += 2) {
+            Card card = Card.parse(value.substring(i, i + 2));
+            if (card == null) {
+              throw new IllegalArgumentException("Invalid card: " + value.substring(i, i + 2));
+            }
+            communityCards.add(card);
+          }
+        }
+        else if (arg.startsWith("--trials=")) { numberOfTrials = Integer.parseInt(value); }
+        else if (arg.startsWith("--seed="))   { seed = Long.parseLong(value); }
+        else {
+          ranges.add(Range.parse(arg));
+        }
+      }
+      if (ranges.size() < 2) {
+        System.out.println(USAGE);
+        return;
+      }
+      long start = System.nanoTime();
+      Equity equity = calculate(ranges, communityCards, numberOfTrials, seed);
+      System.out.println(equity);
+      System.out.printf("%.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+    catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      System.out.println(USAGE);
+    }
+  }
+
+  /* Return true if players [player, ...) can each hold a combo without
+     sharing a card with each other or with used. */
+  private static boolean hasShowdown(long[][] combos, int player, long used) {
+    if (player == combos.length) {
+      return true;
+    }
+    for (long combo : combos[player]) {
+      if ((combo & used) == 0 && hasShowdown(combos, player + 1, used | combo)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /* Return number of ways to choose k of n cards. */
+  private static double getNumberOfBoards(int n, int k) {
+    double boards = 1;
+    for (int i = 0; i < k; i++) {
+      boards = boards * (n - i) / (i + 1);
+    }
+    return boards;
+  }
+
+  /* Deals every runout whose first new card is remainingCards[first..last). */
+  private static final class Search extends RecursiveTask<Equity> {
+
+    private static final long serialVersionUID = 1L;
+
+    private long[][] combos;
+    private double[][] weights;
+    private long[] remainingCards;
+    private int cardsToDeal;
+    private long board;
+    private int boardState;
+    private int first;
+    private int last;
+
+    /* Per task scratch, so scoring a board allocates nothing. */
+    private transient int[][] comboStrengths; /* 0 if the combo uses a board card */
+    private transient int[] strengths;
+    private transient Equity equity;
+
+    private Search(long[][] combos, double[][] weights, long[] remainingCards, int cardsToDeal,
+        long board, int boardState, int first, int last) {
+      this.combos         = combos;
+      this.weights        = weights;
+      this.remainingCards = remainingCards;
+      this.cardsToDeal    = cardsToDeal;
+      this.board          = board;
+      this.boardState     = boardState;
+      this.first          = first;
+      this.last           = Math.min(last, remainingCards.length - cardsToDeal + 1);
+    }
+
+    @Override
+    protected Equity compute() {
+      if (last - first <= 1) {
+        return enumerate(first, last);
+      }
+      int middle = (first + last) >>> 1;
+      Search left = new Search(combos, weights, remainingCards, cardsToDeal, board, boardState, first, middle);
+      left.fork();
+      Equity right = new Search(combos, weights, remainingCards, cardsToDeal, board, boardState,
+        middle, last).compute();
+      Equity result = left.join();
+      result.merge(right);
+      return result;
+    }
+
+    private Equity enumerate(int first, int last) {
+      comboStrengths = new int[combos.length][];
+      for (int i = 0; i < combos.length; i++) {
+        comboStrengths[i] = new int[combos[i].length];
+      }
+      strengths = new int[combos.length];
+      equity = new Equity(combos.length);
+      if (cardsToDeal == 0) {
+        addBoard(board, boardState);
+        return equity;
+      }
+      for (int i = first; i < last; i++) {
+        long card = remainingCards[i];
+        deal(i + 1, cardsToDeal - 1, board | card, HandEvaluator.addCards(boardState, card));
+      }
+      return equity;
+    }
+
+    private void deal(int next, int cardsLeft, long cards, int state) {
+      if (cardsLeft == 0) {
+        addBoard(cards, state);
+        return;
+      }
+      for (int i = next; i <= remainingCards.length - cardsLeft; i++) {
+        long card = remainingCards[i];
+        deal(i + 1, cardsLeft - 1, cards | card, HandEvaluator.addCards(state, card));
+      }
+    }
+
+    /* Score every combo on this board once, then every showdown. */
+    private void addBoard(long cards, int state) {
+      for (int i = 0; i < combos.length; i++) {
+        for (int c = 0; c < combos[i].length; c++) {
+          long combo = combos[i][c];
+          comboStrengths[i][c] = ((combo & cards) != 0) ? 0
+            : HandEvaluator.evaluate(HandEvaluator.addCards(state, combo), cards | combo);
+        }
+      }
+      addShowdowns(0, cards, 1);
+    }
+
+    private void addShowdowns(int player, long used, double weight) {
+      if (player == combos.length) {
+        equity.addBoard(strengths, weight);
+        return;
+      }
+      for (int c = 0; c < combos[player].length; c++) {
+        if (comboStrengths[player][c] != 0 && (combos[player][c] & used) == 0) {
+          strengths[player] = comboStrengths[player][c];
+          addShowdowns(player + 1, used | combos[player][c], weight * weights[player][c]);
+        }
+      }
+    }
+
+  }
+
+  /* Plays the trials of chunks [firstChunk, lastChunk). */
+  private static final class Sampler extends RecursiveTask<Equity> {
+
+    private static final long serialVersionUID = 1L;
+
+    private long[][] combos;
+    private double[][] cumulativeWeights;
+    private long[] remainingCards;
+    private int cardsToDeal;
+    private long board;
+    private int boardState;
+    private long seed;
+    private int numberOfTrials;
+    private int firstChunk;
+    private int lastChunk;
+
+    private Sampler(long[][] combos, double[][] cumulativeWeights, long[] remainingCards,
+        int cardsToDeal, long board, int boardState, long seed, int numberOfTrials,
+        int firstChunk, int lastChunk) {
+      this.combos            = combos;
+      this.cumulativeWeights = cumulativeWeights;
+      this.remainingCards    = remainingCards;
+      this.cardsToDeal       = cardsToDeal;
+      this.board             = board;
+      this.boardState        = boardState;
+      this.seed              = seed;
+      this.numberOfTrials    = numberOfTrials;
+      this.firstChunk        = firstChunk;
+      this.lastChunk         = lastChunk;
+    }
+
+    @Override
+    protected Equity compute() {
+      if (lastChunk - firstChunk <= 1) {
+        return play();
+      }
+      int middleChunk = (firstChunk + lastChunk) >>> 1;
+      Sampler left = new Sampler(combos, cumulativeWeights, remainingCards, cardsToDeal, board,
+        boardState, seed, numberOfTrials, firstChunk, middleChunk);
+      left.fork();
+      Equity right = new Sampler(combos, cumulativeWeights, remainingCards, cardsToDeal, board,
+        boardState, seed, numberOfTrials, middleChunk, lastChunk).compute();
+      Equity result = left.join();
+      result.merge(right);
+      return result;
+    }
+
+    private Equity play() {
+      Equity equity = new Equity(combos.length);
+      int[] strengths = new int[combos.length];
+      long[] holeCards = new long[combos.length];
+      long[] deck = remainingCards.clone();
+      Random random = new Random(getChunkSeed(firstChunk));
+      int trials = Math.min(CHUNK_SIZE, numberOfTrials - firstChunk * CHUNK_SIZE);
+
+      for (int trial = 0; trial < trials; trial++) {
+        /* One combo per player by weight, starting over on a collision. */
+        long used;
+        int player;
+        do {
+          used = board;
+          for (player = 0; player < combos.length; player++) {
+            long combo = combos[player][pick(cumulativeWeights[player], random)];
+            if ((combo & used) != 0) {
+              break;
+            }
+            holeCards[player] = combo;
+            used |= combo;
+          }
+        } while (player < combos.length);
+
+        /* Partial Fisher-Yates over the cards not on the board, keeping
+           the first cardsToDeal that no player holds. */
+        long cards = board;
+        int state = boardState;
+        for (int i = 0, dealt = 0; dealt < cardsToDeal; i++) {
+          int j = i + random.nextInt(deck.length - i);
+          long card = deck[j];
+          deck[j] = deck[i];
+          deck[i] = card;
+          if ((card & used) == 0) {
+            cards |= card;
+            state = HandEvaluator.addCards(state, card);
+            dealt++;
+          }
+        }
+
+        for (int i = 0; i < combos.length; i++) {
+          strengths[i] = HandEvaluator.evaluate(HandEvaluator.addCards(state, holeCards[i]),
+            cards | holeCards[i]);
+        }
+        equity.addBoard(strengths);
+      }
+      return equity;
+    }
+
+    /* Return index of a combo drawn with probability proportional to its weight. */
+    private static int pick(double[] cumulativeWeights, Random random) {
+      double r = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+      int low = 0;
+      int high = cumulativeWeights.length - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (cumulativeWeights[middle] > r) {
+          high = middle;
+        }
+        else {
+          low = middle + 1;
+        }
+      }
+      return low;
+    }
+
+    private static double[][] getCumulativeWeights(double[][] weights) {
+      double[][] cumulativeWeights = new double[weights.length][];
+      for (int i = 0; i < weights.length; i++) {
+        cumulativeWeights[i] = new double[weights[i].length];
+        double sum = 0;
+        for (int c = 0; c < weights[i].length; c++) {
+          sum += weights[i][c];
+          cumulativeWeights[i][c] = sum;
+        }
+      }
+      return cumulativeWeights;
+    }
+
+    /* Mix seed and chunk number so neighbouring chunks get unrelated streams. */
+    private long getChunkSeed(int chunk) {
+      long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+    }
+
+  }
+
+}
@@ -23,6 +23,10 @@ import java.util.Collections;
     28, 38, 37, 26, 29, 39, 49, 210, 59, 47, 48, 58, 36
     Face+low Unsuited, Ace+low Unsuited
 
+    Measured equity of all 169 starting hands against 1-7 opponents:
+    java PreflopTable generate <file>, played by PreflopStrategy
+    (java TexasHoldEm --preflop=<file>).
+
     Ranks:
     http://www.texasholdem-poker.com/handrank
 
@@ -42,48 +46,39 @@ import java.util.Collections;
     e.g. (1,10) for Straight Flush and 10 being the highest card
     e.g. (6,11) for 3 of a Kind with Jack being the highest card
     e.g. (9,14) for High Card Ace
+
+    Strength:
+    A single int from 1 to 7462 that orders every distinct 5-card hand,
+    kickers included. Higher is better and equal strengths split the pot.
 */
 
 public class Rank {
 
   private int degree;
+  private int strength;
+  private long mask;
   private ArrayList<Card> cards;
 
   public Rank(ArrayList<Card> communityCards, ArrayList<Card> playersCards) {
-    degree = 9;
-    cards = new ArrayList<>();
-
     /* Join all cards together. */
-    for (Card card : communityCards) {
-      cards.add(card);
-    }
-    for (Card card : playersCards) {
-      cards.add(card);
-    }
-
-    Collections.sort(cards, Card.CardValueComparator);
+    mask = CardSet.fromList(communityCards) | CardSet.fromList(playersCards);
 
     /* Determine highest rank of hand (lowest degree). */
-    if (isRoyalFlush(cards)
-        || isStraightFlush(cards)
-        || isFourOfAKind(cards)
-        || isFullHouse(cards)
-        || isFlush(cards)
-        || isStraight(cards)
-        || isThreeOfAKind(cards)
-        || isTwoPair(cards)
-        || isOnePair(cards)
-        || isHighCard(cards)
-    ) {
-      /* Do nothing. Everything gets set during the checks.*/
-    }
+    strength = HandEvaluator.evaluate(mask);
+    degree = getDegree(strength);
+  }
 
-    /* Preserve order if isFullHouse() is true. Otherwise sort
-       using descending order.*/
-    if (degree != 3) {
-      Collections.sort(cards, Card.CardValueComparator);
+  /* Return degree of a hand strength. */
+  public static int getDegree(int strength) {
+    if (strength == HandEvaluator.NUMBER_OF_HAND_CLASSES) {
+      return 0;
+    }
+    else if (HandEvaluator.getCategory(strength) == HandEvaluator.STRAIGHT_FLUSH) {
+      return 1;
+    }
+    else {
+      return 9 - HandEvaluator.getCategory(strength);
     }
-
   }
 
   /* Return list of cards matching specified suit. */
@@ -130,8 +125,15 @@ public class Rank {
   public int getDegree()
     { return degree; }
 
-  public ArrayList<Card> getCards()
-    { return cards; }
+  public int getStrength()
+    { return strength; }
+
+  public ArrayList<Card> getCards() {
+    if (cards == null) {
+      cards = getCardsOfHand();
+    }
+    return cards;
+  }
 
   public static Card getHighestCard(ArrayList<Card> cards) {
     Card highestCard;
@@ -163,33 +165,49 @@ public class Rank {
 
   @Override
   public String toString() {
-    String s;
-    switch (degree) {
-      case 0: s = "Royal Flush"; break;
-      case 1: s = "Straight Flush"; break;
-      case 2: s = "Four of a Kind"; break;
-      case 3: s = "Full House"; break;
-      case 4: s = "Flush"; break;
-      case 5: s = "Straight"; break;
-      case 6: s = "Three of a Kind"; break;
-      case 7: s = "Two Pair"; break;
-      case 8: s = "One Pair"; break;
-      case 9: s = "High Card"; break;
-      default: s = "UNKNOWN_RANK"; break;
-    }
+    StringBuilder s = new StringBuilder(getDegreeString());
 
     if (degree >= 0 && degree <= 9) {
-      s += " ";
+      s.append(' ');
+      ArrayList<Card> cards = getCards();
       Collections.sort(cards, Card.CardValueComparator);
       for (int i = 0; i < cards.size(); i++) {
-        s += cards.get(i).toString() + " ";
+        s.append(cards.get(i).toString()).append(' ');
       }
     }
 
-    return s;
+    return s.toString();
+  }
+
+  public String getDegreeString()
+    { return getDegreeString(strength); }
+
+  /* Return name of the degree of a hand strength. */
+  public static String getDegreeString(int strength)
+    { return degreeToString(getDegree(strength)); }
+
+  /* Return name of a hand strength including the values that rank it,
+     e.g. "Two Pair K 9 4". */
+  public static String getHandClassString(int strength) {
+    int numberOfValues;
+    switch (HandEvaluator.getCategory(strength)) {
+      case HandEvaluator.STRAIGHT_FLUSH:
+      case HandEvaluator.STRAIGHT:        numberOfValues = 1; break;
+      case HandEvaluator.FOUR_OF_A_KIND:
+      case HandEvaluator.FULL_HOUSE:      numberOfValues = 2; break;
+      case HandEvaluator.THREE_OF_A_KIND:
+      case HandEvaluator.TWO_PAIR:        numberOfValues = 3; break;
+      case HandEvaluator.ONE_PAIR:        numberOfValues = 4; break;
+      default:                            numberOfValues = 5; break;
+    }
+    StringBuilder s = new StringBuilder(getDegreeString(strength));
+    for (int i = 0; i < numberOfValues; i++) {
+      s.append(' ').append(Card.WORD_VALUES[HandEvaluator.getPatternValue(strength, i)]);
+    }
+    return s.toString();
   }
 
-  public String getDegreeString() {
+  public static String degreeToString(int degree) {
     String s;
     switch (degree) {
       case 0: s = "Royal Flush"; break;
@@ -208,323 +226,64 @@ public class Rank {
     return s;
   }
 
-  private boolean isRoyalFlush(ArrayList<Card> listOfCards) {
-    int tmpSuit;
-    ArrayList<Card> listOfAces;
-
-    /* Get list of aces. */
-    listOfAces = getCardsByValue(listOfCards, 14);
-
-    /* Check each ace for matching King, Queen, Jack, and 10. */
-    for (Card card : listOfAces) {
-      tmpSuit = card.getSuit();
-      if (isCardFound(listOfCards, new Card(13, tmpSuit))           /* King  of same suit */
-              && isCardFound(listOfCards, new Card(12, tmpSuit))    /* Queen of same suit */
-              && isCardFound(listOfCards, new Card(11, tmpSuit))    /* Jack  of same suit */
-              && isCardFound(listOfCards, new Card(10, tmpSuit))) { /* Ten   of same suit */
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int i = 14; i >= 10; i--) {
-          listOfCards.add(new Card(i, tmpSuit));
+  /* Return the cards that make up the rank. Full House keeps the 3 of
+     a Kind ahead of the Pair, everything else is in descending order. */
+  private ArrayList<Card> getCardsOfHand() {
+    ArrayList<Card> sortedCards = CardSet.toList(mask);
+    ArrayList<Card> handCards = new ArrayList<>();
+    int category = HandEvaluator.getCategory(strength);
+
+    switch (category) {
+      case HandEvaluator.STRAIGHT_FLUSH:
+      case HandEvaluator.STRAIGHT:
+        if (category == HandEvaluator.STRAIGHT_FLUSH) {
+          sortedCards = getCardsBySuit(sortedCards, CardSet.getFlushSuit(mask));
         }
-
-        degree = 0;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isStraightFlush(ArrayList<Card> listOfCards) {
-    ArrayList<Card> tmpCards;
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    for (int i = 0; i < listOfCards.size(); i++) {
-      tmpCards = getCardsBySuit(listOfCards, listOfCards.get(i).getSuit());
-      if (isStraight(tmpCards)) {
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (Card card : tmpCards) {
-          listOfCards.add(card);
+        for (int i = 0; i < 5; i++) {
+          int value = HandEvaluator.getPatternValue(strength, 0) - i;
+          addCards(handCards, sortedCards, value == 1 ? 14 : value, 1);
         }
-
-        degree = 1;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isFourOfAKind(ArrayList<Card> listOfCards) {
-    int tmpValue;
-    ArrayList<Card> tmpCards;
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Check each card for total of four matching cards. */
-    for (int i = 0; i < listOfCards.size(); i++) {
-      tmpCards = Card.getCopyOfCards(listOfCards);
-      tmpValue = listOfCards.get(i).getValue();
-      tmpCards = getCardsByValue(tmpCards, tmpValue);
-      if (tmpCards.size() >= 4) {
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int j = 0; j < 4; j++) {
-          listOfCards.add(tmpCards.get(j));
+        break;
+      case HandEvaluator.FLUSH:
+        sortedCards = getCardsBySuit(sortedCards, CardSet.getFlushSuit(mask));
+        for (int i = 0; i < 5; i++) {
+          handCards.add(sortedCards.get(i));
         }
-
-        degree = 2;
-
-        return true;
-      }
+        break;
+      case HandEvaluator.FOUR_OF_A_KIND:
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 0), 4);
+        break;
+      case HandEvaluator.FULL_HOUSE:
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 0), 3);
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 1), 2);
+        return handCards;
+      case HandEvaluator.THREE_OF_A_KIND:
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 0), 3);
+        break;
+      case HandEvaluator.TWO_PAIR:
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 0), 2);
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 1), 2);
+        break;
+      case HandEvaluator.ONE_PAIR:
+        addCards(handCards, sortedCards, HandEvaluator.getPatternValue(strength, 0), 2);
+        break;
+      default:
+        handCards.add(sortedCards.get(0));
+        break;
     }
 
-    return false;
+    Collections.sort(handCards, Card.CardValueComparator);
+    return handCards;
   }
 
-  private boolean isFullHouse(ArrayList<Card> listOfCards) {
-    ArrayList<Card> tmpCards;
-    ArrayList<Card> threeOfAKind = new ArrayList<>();
-    ArrayList<Card> twoOfAKind = new ArrayList<>();
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Find three of a kind. */
-    tmpCards = Card.getCopyOfCards(listOfCards);
-    if (isThreeOfAKind(tmpCards)) {
-      /* Save three of a kind. */
-      threeOfAKind = Card.getCopyOfCards(tmpCards);
-      /* Remove three of a kind from copy of original list. */
-      tmpCards.clear();
-      for (Card card : listOfCards) {
-        if (card.getValue() != threeOfAKind.get(0).getValue()) {
-          tmpCards.add(card);
-        }
-      }
-
-      /* Find two of a kind. */
-      if (isOnePair(tmpCards)) {
-        /* Save two of a kind. */
-        twoOfAKind = Card.getCopyOfCards(tmpCards);
-
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int j = 0; j < 3; j++) {
-          listOfCards.add(threeOfAKind.get(j));
-        }
-        for (int j = 0; j < 2; j++) {
-          listOfCards.add(twoOfAKind.get(j));
-        }
-
-        degree = 3;
-
-        return true;
+  /* Add up to count cards of specified value. */
+  private static void addCards(ArrayList<Card> destination, ArrayList<Card> source, int value, int count) {
+    for (Card card : source) {
+      if (count > 0 && card.getValue() == value) {
+        destination.add(card);
+        count--;
       }
     }
-
-    return false;
-  }
-
-  private boolean isFlush(ArrayList<Card> listOfCards) {
-    int tmpSuit;
-    ArrayList<Card> tmpCards;
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    for (int i = 0; i < listOfCards.size(); i++) {
-      tmpCards = Card.getCopyOfCards(listOfCards);
-      tmpSuit = listOfCards.get(i).getSuit();
-      tmpCards = getCardsBySuit(tmpCards, tmpSuit);
-      if (tmpCards.size() >= 5) {
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        Collections.sort(tmpCards, Card.CardValueComparator);
-        for (int j = 0; j < 5; j++) {
-          listOfCards.add(tmpCards.get(j));
-        }
-
-        degree = 4;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isStraight(ArrayList<Card> listOfCards) {
-    int counter;
-    ArrayList<Card> tmpCards = new ArrayList<>();
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Remove duplicates. */
-    for (Card card : listOfCards) {
-      if (!isValueFound(tmpCards, card.getValue())) {
-        tmpCards.add(card);
-      }
-    }
-
-    counter = 0;
-    Collections.sort(tmpCards, Card.CardValueComparator);
-    /* Check for when Ace is considered as 1 for 1-5 straight. */
-    if (isValueFound(tmpCards, 14)
-        && isValueFound(tmpCards, 2)
-        && isValueFound(tmpCards, 3)
-        && isValueFound(tmpCards, 4)
-        && isValueFound(tmpCards, 5)
-        && !(isValueFound(tmpCards, 13)
-        && isValueFound(tmpCards, 12)
-        && isValueFound(tmpCards, 11)
-        && isValueFound(tmpCards, 10))) {
-      listOfCards.clear();
-      listOfCards.add(tmpCards.get(0));
-      for (int i = tmpCards.size()-1; i >= tmpCards.size()-4; i--) {
-        listOfCards.add(tmpCards.get(i));
-      }
-      degree = 5;
-      return true;
-    }
-    /* Check for regular straight. */
-    else {
-      for (int i = 0; i < tmpCards.size()-1; i++) {
-        if (tmpCards.get(i).getValue() == tmpCards.get(i+1).getValue()+1) {
-          counter++;
-          if (counter >= 4) {
-            /* Remove irrelevant cards from original list. */
-            listOfCards.clear();
-            for (int j = i+1; j > (i-4); j--) {
-              listOfCards.add(tmpCards.get(j));
-            }
-            Collections.sort(listOfCards, Card.CardValueComparator);
-
-            degree = 5;
-
-            return true;
-          }
-        }
-        else {
-          counter = 0;
-        }
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isThreeOfAKind(ArrayList<Card> listOfCards) {
-    int tmpValue;
-    ArrayList<Card> tmpCards;
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Check each card for total of four matching cards. */
-    for (int i = 0; i < listOfCards.size(); i++) {
-      tmpCards = Card.getCopyOfCards(listOfCards);
-      tmpValue = listOfCards.get(i).getValue();
-      tmpCards = getCardsByValue(tmpCards, tmpValue);
-      if (tmpCards.size() >= 3) {
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int j = 0; j < 3; j++) {
-          listOfCards.add(tmpCards.get(j));
-        }
-
-        degree = 6;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isTwoPair(ArrayList<Card> listOfCards) {
-    ArrayList<Card> tmpCards;
-    ArrayList<Card> pair1;
-    ArrayList<Card> pair2;
-
-    pair1 = new ArrayList<>();
-    pair2 = new ArrayList<>();
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Find first pair. */
-    tmpCards = Card.getCopyOfCards(listOfCards);
-    if (isOnePair(tmpCards)) {
-      /* Save first pair. */
-      pair1 = Card.getCopyOfCards(tmpCards);
-
-      /* Remove first pair from copy of original list of cards. */
-      tmpCards.clear();
-      for (Card card : listOfCards) {
-        if (card.getValue() != pair1.get(0).getValue()) {
-          tmpCards.add(card);
-        }
-      }
-
-      /* Find second pair. */
-      if (isOnePair(tmpCards)) {
-        /* Save second pair. */
-        pair2 = Card.getCopyOfCards(tmpCards);
-
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int i = 0; i < 2; i++) {
-          listOfCards.add(pair1.get(i));
-        }
-        for (int i = 0; i < 2; i++) {
-          listOfCards.add(pair2.get(i));
-        }
-
-        degree = 7;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isOnePair(ArrayList<Card> listOfCards) {
-    int tmpValue;
-    ArrayList<Card> tmpCards;
-
-    Collections.sort(listOfCards, Card.CardValueComparator);
-
-    /* Check each card for total of four matching cards. */
-    for (int i = 0; i < listOfCards.size(); i++) {
-      tmpCards = Card.getCopyOfCards(listOfCards);
-      tmpValue = listOfCards.get(i).getValue();
-      tmpCards = getCardsByValue(tmpCards, tmpValue);
-      if (tmpCards.size() >= 2) {
-        /* Remove irrelevant cards from original list. */
-        listOfCards.clear();
-        for (int j = 0; j < 2; j++) {
-          listOfCards.add(tmpCards.get(j));
-        }
-
-        degree = 8;
-
-        return true;
-      }
-    }
-
-    return false;
-  }
-
-  private boolean isHighCard(ArrayList<Card> listOfCards) {
-    Card tmpCard;
-    Collections.sort(listOfCards, Card.CardValueComparator);
-    tmpCard = listOfCards.get(0);
-    listOfCards.clear();
-    listOfCards.add(tmpCard);
-    degree = 9;
-    return true;
   }
 
 }
@@ -0,0 +1,171 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Replay.java */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Re-scores a hand history without dealing the games again.
+
+    The file is split into chunks of CHUNK_SIZE records. Every chunk is
+    mapped read-only and replayed by its own Game, which rebuilds each
+    game's hands from the record, applies the recorded folds and runs the
+    showdown with the current HandEvaluator, paying out the all-in again
+    if the history was played for chips. Chunk reports are merged in
+    file order, so replaying a simulation's history gives the same
+    Simulation Report as the simulation did.
+
+    A game counts as changed when the winners of the replay differ from
+    the recorded winners, e.g. after a change to the evaluator.
+*/
+
+public final class Replay {
+
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  private static final String USAGE =
+    "Usage: java Replay <file> [--threads=N] [--classes]";
+
+  private HandHistoryReader reader;
+  private AtomicLong numberOfChangedGames;
+
+  public Replay(HandHistoryReader reader) {
+    this.reader          = reader;
+    numberOfChangedGames = new AtomicLong();
+  }
+
+  /* Replay every game and return the merged report. */
+  public SimulationReport run(int numberOfThreads) {
+    int numberOfChunks = (int)((reader.getNumberOfRecords() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    numberOfChangedGames.set(0);
+
+    if (numberOfThreads <= 1) {
+      return replayChunks(0, numberOfChunks);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+    try {
+      return pool.invoke(new ChunkTask(0, numberOfChunks));
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  /* Return number of games of the last run whose winners changed. */
+  public long getNumberOfChangedGames()
+    { return numberOfChangedGames.get(); }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println(USAGE);
+      return;
+    }
+
+    int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    boolean printHandClasses = false;
+    try {
+      for (int i = 1; i < args.length; i++) {
+        if (args[i].startsWith("--threads=")) {
+          numberOfThreads = Integer.parseInt(args[i].substring("--threads=".length()));
+        }
+        else if (args[i].equals("--classes")) {
+          printHandClasses = true;
+        }
+        else {
+          System.out.println("Unknown argument: " + args[i]);
+          System.out.println(USAGE);
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException e) {
+      System.out.println("Invalid number: " + e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+
+    try (HandHistoryReader reader = new HandHistoryReader(Paths.get(args[0]))) {
+      Replay replay = new Replay(reader);
+      SimulationReport report = replay.run(numberOfThreads);
+      report.print();
+      if (printHandClasses) {
+        report.printHandClasses();
+      }
+      System.out.println("Games whose winners changed: " + replay.getNumberOfChangedGames());
+    }
+  }
+
+  private SimulationReport replayChunks(int firstChunk, int lastChunk) {
+    SimulationReport report = new SimulationReport();
+    Game game = new Game();
+    game.setStacks(reader.getStacks());
+    HandRecord record = new HandRecord();
+    long changedGames = 0;
+    for (int chunk = firstChunk; chunk < lastChunk; chunk++) {
+      ByteBuffer records;
+      try {
+        records = reader.map((long)chunk * CHUNK_SIZE, CHUNK_SIZE);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      changedGames += replayRecords(records, game, record, report);
+    }
+    numberOfChangedGames.addAndGet(changedGames);
+    return report;
+  }
+
+  /* Replay every record of a mapped chunk and return how many changed. */
+  private static long replayRecords(ByteBuffer records, Game game, HandRecord record,
+      SimulationReport report) {
+    long changedGames = 0;
+    for (int offset = 0; offset < records.limit(); offset += HandRecord.SIZE) {
+      record.read(records, offset);
+      if (!game.replay(record, report)) {
+        changedGames++;
+      }
+    }
+    return changedGames;
+  }
+
+  /* Replays a range of chunks, splitting it in half until one chunk is left. */
+  private final class ChunkTask extends RecursiveTask<SimulationReport> {
+
+    private static final long serialVersionUID = 1L;
+
+    private int firstChunk;
+    private int lastChunk;
+
+    private ChunkTask(int firstChunk, int lastChunk) {
+      this.firstChunk = firstChunk;
+      this.lastChunk  = lastChunk;
+    }
+
+    @Override
+    protected SimulationReport compute() {
+      if (lastChunk - firstChunk <= 1) {
+        return replayChunks(firstChunk, lastChunk);
+      }
+      int middleChunk = (firstChunk + lastChunk) >>> 1;
+      ChunkTask left = new ChunkTask(firstChunk, middleChunk);
+      left.fork();
+      SimulationReport right = new ChunkTask(middleChunk, lastChunk).compute();
+      SimulationReport report = left.join();
+      report.merge(right);
+      return report;
+    }
+
+  }
+
+}
@@ -0,0 +1,188 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SidePots.java */
+
+/*
+    Splits the chips of an all-in showdown into a main pot and side pots
+    and pays each pot to the best hands among the players who can win it.
+
+    The all-in amounts of the players still in mark the pots: pot k holds
+    what every player, folded or not, put in between the (k-1)th and kth
+    smallest amount, and only players who put in the kth amount can win
+    it. Chips nobody can win are returned first: what any player, folded
+    or not, put in above every other player's amount (nobody called it),
+    and what anyone put in above the largest amount of a player still in
+    (no player who could win it reached it).
+
+    Players still in are sorted once by a key of strength and seat, best
+    first, and their all-in amounts once, ascending, to count each pot's
+    chips. The strongest group of tied players then takes every pot up to
+    its largest all-in, the next group every pot above that up to its
+    own, and so on, so all pots are paid in one pass over the sorted
+    players. A pot that does not divide evenly gives its odd chips one
+    each to its winners nearest the left of the button (the key's order
+    within a tie). Arrays are allocated once, so resolve() allocates
+    nothing.
+*/
+
+public final class SidePots {
+
+  private static final int SEAT_BITS = 4;
+
+  private int[] keys;        /* strength << SEAT_BITS | (15 - distance from first seat) */
+  private int[] seats;       /* seat of each key */
+  private long[] called;     /* chips of each seat that are in play */
+  private long[] levels;     /* all-in amounts that end a pot, ascending */
+  private long[] potChips;   /* chips in each pot */
+  private long[] payouts;
+  private int numberOfPots;
+
+  public SidePots(int maxSeats) {
+    if (maxSeats > (1 << SEAT_BITS)) {
+      throw new IllegalArgumentException("At most " + (1 << SEAT_BITS) + " seats.");
+    }
+    keys     = new int[maxSeats];
+    seats    = new int[maxSeats];
+    called   = new long[maxSeats];
+    levels   = new long[maxSeats];
+    potChips = new long[maxSeats];
+    payouts  = new long[maxSeats];
+  }
+
+  /* Pay out the chips put in by specified number of seats. contributions
+     are the chips each seat put in, strengths each seat's hand (1-7462),
+     0 for seats that folded. firstSeat is the seat to the left of the
+     button, which gets the first odd chip. */
+  public void resolve(int numberOfSeats, long[] contributions, int[] strengths, int firstSeat) {
+    int numberOfLiveSeats = 0;
+    long highest = 0;
+    long secondHighest = 0;
+    long highestLive = 0;
+    for (int seat = 0; seat < numberOfSeats; seat++) {
+      payouts[seat] = 0;
+      called[seat]  = contributions[seat];
+      if (contributions[seat] > highest) {
+        secondHighest = highest;
+        highest = contributions[seat];
+      }
+      else if (contributions[seat] > secondHighest) {
+        secondHighest = contributions[seat];
+      }
+      if (strengths[seat] <= 0) {
+        continue;
+      }
+      highestLive = Math.max(highestLive, contributions[seat]);
+
+      /* Insertion sort, best key first. */
+      int distance = seat - firstSeat;
+      if (distance < 0) {
+        distance += numberOfSeats;
+      }
+      int key = strengths[seat] << SEAT_BITS | ((1 << SEAT_BITS) - 1 - distance);
+      int i = numberOfLiveSeats++;
+      while (i > 0 && keys[i - 1] < key) {
+        keys[i]  = keys[i - 1];
+        seats[i] = seats[i - 1];
+        i--;
+      }
+      keys[i]  = key;
+      seats[i] = seat;
+    }
+    numberOfPots = 0;
+    if (numberOfLiveSeats == 0) {
+      return;
+    }
+
+    /* Return what nobody called or no player still in reached, then list
+       the all-in amounts left in ascending order. */
+    long topLevel = Math.min(secondHighest, highestLive);
+    for (int seat = 0; seat < numberOfSeats; seat++) {
+      if (called[seat] > topLevel) {
+        payouts[seat] += called[seat] - topLevel;
+        called[seat] = topLevel;
+      }
+    }
+    for (int i = 0; i < numberOfLiveSeats; i++) {
+      addLevel(called[seats[i]]);
+    }
+
+    /* Nothing was called (nobody else put chips in, or all in for 0
+       chips): everything went back, and the best hands split an empty
+       main pot. */
+    if (numberOfPots == 0) {
+      levels[0] = 0;
+      numberOfPots = 1;
+    }
+    long below = 0;
+    for (int pot = 0; pot < numberOfPots; pot++) {
+      long chips = 0;
+      for (int seat = 0; seat < numberOfSeats; seat++) {
+        chips += Math.min(called[seat], levels[pot]);
+      }
+      potChips[pot] = chips - below;
+      below = chips;
+    }
+
+    int pot = 0;
+    for (int first = 0, last; pot < numberOfPots; first = last) {
+      last = first + 1;
+      long groupLevel = called[seats[first]];
+      while (last < numberOfLiveSeats && keys[last] >>> SEAT_BITS == keys[first] >>> SEAT_BITS) {
+        groupLevel = Math.max(groupLevel, called[seats[last]]);
+        last++;
+      }
+      for (; pot < numberOfPots && levels[pot] <= groupLevel; pot++) {
+        payPot(first, last, levels[pot], potChips[pot]);
+      }
+    }
+  }
+
+  /* Return chips won by seat (including chips returned to it) in the last
+     call to resolve(). */
+  public long getPayout(int seat)
+    { return payouts[seat]; }
+
+  /* Return number of pots (main pot and side pots) of the last call to
+     resolve(). */
+  public int getNumberOfPots()
+    { return numberOfPots; }
+
+  /* Insert an all-in amount above 0 into levels, once. */
+  private void addLevel(long level) {
+    if (level == 0) {
+      return;
+    }
+    int i = numberOfPots;
+    while (i > 0 && levels[i - 1] > level) {
+      i--;
+    }
+    if (i > 0 && levels[i - 1] == level) {
+      return;
+    }
+    System.arraycopy(levels, i, levels, i + 1, numberOfPots - i);
+    levels[i] = level;
+    numberOfPots++;
+  }
+
+  /* Pay chips to the players of the tied group of keys [first, last) that
+     put in at least level. */
+  private void payPot(int first, int last, long level, long chips) {
+    int numberOfWinners = 0;
+    for (int i = first; i < last; i++) {
+      if (called[seats[i]] >= level) {
+        numberOfWinners++;
+      }
+    }
+    long share = chips / numberOfWinners;
+    long oddChips = chips % numberOfWinners;
+    for (int i = first; i < last; i++) {
+      if (called[seats[i]] >= level) {
+        payouts[seats[i]] += share + ((oddChips-- > 0) ? 1 : 0);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,268 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Simulation.java */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/*
+    Runs many games and collects a SimulationReport.
+
+    Games are split into chunks of CHUNK_SIZE. Every thread that plays
+    chunks gets one Worker (through a ThreadLocal, like SimulationMetrics'
+    recorders): a Game, with its strategies' caches, and the report and
+    buffers it fills, kept for every chunk the thread plays. The workers'
+    reports are merged when all chunks are done. Every game is dealt from
+    its own GameRandom stream, keyed by the simulation seed and the game
+    number, so the report only depends on the number of players, number
+    of games and seed, not on how many threads played them or in which
+    order, and any one game can be dealt again with playGame().
+
+    With a HandHistoryWriter set, each chunk's games are recorded in a
+    buffer of the worker and written to the file when the chunk is done.
+    With SimulationMetrics set, each worker records its games to its own
+    recorder.
+
+    With stacks set, every game is played for chips and ends in an all-in
+    showdown paid by SidePots (see Game.setStacks()). With strategies set,
+    every Game gets its own from the supplier, so a Strategy need not be
+    thread safe.
+
+    With a checkpoint file set, every chunk's report is handed to a
+    SimulationCheckpoint that saves the run's progress in the background.
+    A resumed simulation skips the chunks its checkpoint has and, since
+    chunks do not depend on each other, ends with the same report as a
+    run that was never stopped.
+*/
+
+public final class Simulation {
+
+  private static final int CHUNK_SIZE = 4096;
+
+  private int numberOfPlayers;
+  private long numberOfGames;
+  private long seed;
+  private long[] stacks; /* null when not played for chips */
+  private Supplier<Strategy[]> strategies; /* null for EquityStrategy */
+  private HandHistoryWriter handHistory;
+  private SimulationMetrics metrics;
+  private SimulationCheckpoint checkpoint;
+  private Path checkpointFile;
+  private long checkpointPeriod;
+  private BitSet completedChunks; /* chunks to skip, null for none */
+
+  public Simulation(int numberOfPlayers, long numberOfGames, long seed) {
+    this.numberOfPlayers = numberOfPlayers;
+    this.numberOfGames   = numberOfGames;
+    this.seed            = seed;
+  }
+
+  /* Record every game to specified hand history (null for none). */
+  public void setHandHistory(HandHistoryWriter handHistory)
+    { this.handHistory = handHistory; }
+
+  /* Play every game for chips, each seat starting with stacks[seat %
+     stacks.length] (null for no chips). */
+  public void setStacks(long[] stacks)
+    { this.stacks = stacks; }
+
+  /* Let seat's player decide with the (seat % length)th strategy supplied
+     (null for every player to use an EquityStrategy). The supplier is
+     called once for every Game, on the thread that plays it. */
+  public void setStrategies(Supplier<Strategy[]> strategies)
+    { this.strategies = strategies; }
+
+  /* Continue the simulation saved in checkpoint, playing only the
+     chunks it does not have. */
+  public static Simulation resume(SimulationCheckpoint checkpoint) {
+    Simulation simulation = new Simulation(checkpoint.getNumberOfPlayers(),
+      checkpoint.getNumberOfGames(), checkpoint.getSeed());
+    simulation.checkpoint = checkpoint;
+    simulation.stacks     = checkpoint.getStacks();
+    return simulation;
+  }
+
+  /* Save progress to file every specified number of seconds while running
+     (null for no checkpoints). */
+  public void setCheckpoint(Path file, long periodSeconds) {
+    this.checkpointFile   = file;
+    this.checkpointPeriod = periodSeconds;
+  }
+
+  /* Record throughput and latency of every game to metrics (null for none). */
+  public void setMetrics(SimulationMetrics metrics)
+    { this.metrics = metrics; }
+
+  /* Play every game and return the merged report. Each game is only
+     printed if out is set and the simulation runs on one thread. */
+  public SimulationReport run(int numberOfThreads, PrintWriter out) {
+    int numberOfChunks = (int)((numberOfGames + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    if (metrics != null) {
+      metrics.start(numberOfGames);
+    }
+    if (checkpoint == null && checkpointFile != null) {
+      checkpoint = new SimulationCheckpoint(numberOfPlayers, numberOfGames, seed, numberOfChunks, stacks);
+    }
+    if (checkpoint == null) {
+      return playAllChunks(numberOfThreads, numberOfChunks, out);
+    }
+
+    if (checkpoint.getNumberOfChunks() != numberOfChunks) {
+      throw new IllegalArgumentException("Checkpoint has " + checkpoint.getNumberOfChunks()
+        + " chunks, this simulation " + numberOfChunks + ".");
+    }
+    completedChunks = checkpoint.getCompletedChunks();
+    if (checkpointFile != null) {
+      checkpoint.startSaving(checkpointFile, checkpointPeriod);
+    }
+    try {
+      playAllChunks(numberOfThreads, numberOfChunks, out);
+    }
+    finally {
+      try {
+        checkpoint.finish();
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return checkpoint.getReport();
+  }
+
+  private SimulationReport playAllChunks(int numberOfThreads, int numberOfChunks, PrintWriter out) {
+    if (numberOfThreads <= 1) {
+      Worker worker = new Worker(out);
+      worker.playChunks(0, numberOfChunks);
+      return worker.report;
+    }
+
+    CopyOnWriteArrayList<Worker> allWorkers = new CopyOnWriteArrayList<>();
+    ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> {
+      Worker worker = new Worker(null);
+      allWorkers.add(worker);
+      return worker;
+    });
+    ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+    try {
+      pool.invoke(new ChunkTask(workers, 0, numberOfChunks));
+    }
+    finally {
+      pool.shutdown();
+    }
+    SimulationReport report = new SimulationReport();
+    for (Worker worker : allWorkers) {
+      report.merge(worker.report);
+    }
+    return report;
+  }
+
+  /* Deal and play only specified game (0 to number of games - 1) of the
+     simulation, printing it to out, and return its report. */
+  public SimulationReport playGame(long gameNumber, PrintWriter out) {
+    if (gameNumber < 0 || gameNumber >= numberOfGames) {
+      throw new IllegalArgumentException("Game number must be 0-" + (numberOfGames - 1) + ".");
+    }
+    SimulationReport report = new SimulationReport();
+    Game game = new Game(new GameRandom(seed));
+    game.setOutput(out);
+    game.setStacks(stacks);
+    if (strategies != null) {
+      game.setStrategies(strategies.get());
+    }
+    game.setGameNumber(gameNumber);
+    game.play(numberOfPlayers, 1, report);
+    return report;
+  }
+
+  /* Game and buffers of one thread, reused for every chunk it plays. */
+  private final class Worker {
+
+    private Game game;
+    private ByteBuffer records;          /* null without a hand history */
+    private SimulationReport report;     /* all chunks played */
+    private SimulationReport chunkReport; /* the current chunk, report without a checkpoint */
+
+    private Worker(PrintWriter out) {
+      game        = new Game(new GameRandom(seed));
+      records     = (handHistory != null) ? HandHistoryWriter.allocate(CHUNK_SIZE) : null;
+      report      = new SimulationReport();
+      chunkReport = (checkpoint != null) ? new SimulationReport() : report;
+      game.setOutput(out);
+      game.setMetrics((metrics != null) ? metrics.getRecorder() : null);
+      game.setStacks(stacks);
+      if (strategies != null) {
+        game.setStrategies(strategies.get());
+      }
+      if (records != null) {
+        game.setHistory(records, seed);
+      }
+    }
+
+    private void playChunks(int firstChunk, int lastChunk) {
+      for (int chunk = firstChunk; chunk < lastChunk; chunk++) {
+        if (completedChunks != null && completedChunks.get(chunk)) {
+          continue;
+        }
+        long firstGame = (long)chunk * CHUNK_SIZE;
+        game.setGameNumber(firstGame);
+        if (records != null) {
+          records.clear();
+        }
+        game.play(numberOfPlayers, (int)Math.min(CHUNK_SIZE, numberOfGames - firstGame), chunkReport);
+        if (records != null) {
+          records.flip();
+          try {
+            handHistory.write(records, firstGame);
+          }
+          catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        if (checkpoint != null) {
+          checkpoint.add(chunk, chunkReport);
+          chunkReport.clear();
+        }
+      }
+    }
+
+  }
+
+  /* Plays a range of chunks, splitting it in half until one chunk is left. */
+  private static final class ChunkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient ThreadLocal<Worker> workers;
+    private int firstChunk;
+    private int lastChunk;
+
+    private ChunkTask(ThreadLocal<Worker> workers, int firstChunk, int lastChunk) {
+      this.workers    = workers;
+      this.firstChunk = firstChunk;
+      this.lastChunk  = lastChunk;
+    }
+
+    @Override
+    protected void compute() {
+      if (lastChunk - firstChunk <= 1) {
+        workers.get().playChunks(firstChunk, lastChunk);
+        return;
+      }
+      int middleChunk = (firstChunk + lastChunk) >>> 1;
+      invokeAll(new ChunkTask(workers, firstChunk, middleChunk), new ChunkTask(workers, middleChunk, lastChunk));
+    }
+
+  }
+
+}
@@ -0,0 +1,223 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SimulationCheckpoint.java */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Progress of a Simulation, saved so that a run that is killed can be
+    resumed.
+
+    A chunk's games only depend on the seed and the chunk number (see
+    Simulation), so the state of a run is which chunks are done and the
+    sum of their reports; there is no random generator state to save.
+    Workers hand every finished chunk's report to add(), which adds it
+    under a lock held only for the array additions. A saver thread copies
+    the state into a buffer under the same lock every few seconds and
+    writes it out after releasing it, so the game loop never waits for
+    the disk. The file is written next to the old one and then renamed
+    over it, so a run killed while saving keeps its previous checkpoint.
+
+    File layout (big-endian):
+      int   MAGIC
+      int   VERSION
+      int   number of players
+      long  number of games
+      long  seed
+      int   number of chunks
+      long  completed chunks [(chunks + 63) / 64] (BitSet.toLongArray())
+      int   number of stacks (0 when not played for chips)
+      long  stacks [number of stacks]
+      ...   SimulationReport of the completed chunks (SimulationReport.put())
+*/
+
+public final class SimulationCheckpoint {
+
+  private static final int MAGIC       = 0x53434B50; /* "SCKP" */
+  private static final int VERSION     = 3; /* stacks and chip counters */
+  private static final int HEADER_SIZE = 32;
+
+  private int numberOfPlayers;
+  private long numberOfGames;
+  private long seed;
+  private int numberOfChunks;
+  private long[] stacks; /* null when not played for chips */
+  private BitSet completedChunks;
+  private SimulationReport report;
+  private ScheduledExecutorService saver;
+  private Path path;
+  private IOException saveError;
+
+  public SimulationCheckpoint(int numberOfPlayers, long numberOfGames, long seed, int numberOfChunks,
+      long[] stacks) {
+    this.numberOfPlayers = numberOfPlayers;
+    this.numberOfGames   = numberOfGames;
+    this.seed            = seed;
+    this.numberOfChunks  = numberOfChunks;
+    this.stacks          = stacks;
+    completedChunks      = new BitSet(numberOfChunks);
+    report               = new SimulationReport();
+  }
+
+  public static SimulationCheckpoint read(Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException(path + " is not a simulation checkpoint.");
+      }
+      SimulationCheckpoint checkpoint = new SimulationCheckpoint(buffer.getInt(), buffer.getLong(),
+        buffer.getLong(), buffer.getInt(), null);
+      long[] words = new long[(checkpoint.numberOfChunks + 63) / 64];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = buffer.getLong();
+      }
+      checkpoint.completedChunks = BitSet.valueOf(words);
+      int numberOfStacks = buffer.getInt();
+      if (numberOfStacks > 0) {
+        checkpoint.stacks = new long[numberOfStacks];
+        for (int i = 0; i < numberOfStacks; i++) {
+          checkpoint.stacks[i] = buffer.getLong();
+        }
+      }
+      checkpoint.report = SimulationReport.get(buffer);
+      return checkpoint;
+    }
+    catch (RuntimeException e) {
+      throw new IOException(path + " is not a complete simulation checkpoint.", e);
+    }
+  }
+
+  public int getNumberOfPlayers()
+    { return numberOfPlayers; }
+
+  public long getNumberOfGames()
+    { return numberOfGames; }
+
+  public long getSeed()
+    { return seed; }
+
+  public int getNumberOfChunks()
+    { return numberOfChunks; }
+
+  /* Return the stacks games are played for, null for no chips. */
+  public long[] getStacks()
+    { return stacks; }
+
+  /* Return a copy of the chunks done (bit n set if chunk n is). */
+  public synchronized BitSet getCompletedChunks()
+    { return (BitSet)completedChunks.clone(); }
+
+  /* Return report of the chunks done. */
+  public synchronized SimulationReport getReport()
+    { return report; }
+
+  /* Add a finished chunk's report. Safe to call from any thread. */
+  public synchronized void add(int chunk, SimulationReport chunkReport) {
+    completedChunks.set(chunk);
+    report.merge(chunkReport);
+  }
+
+  /* Save to path every specified number of seconds until finish(). */
+  public synchronized void startSaving(Path path, long periodSeconds) {
+    if (periodSeconds < 1) {
+      throw new IllegalArgumentException("Checkpoint period must be at least 1 second.");
+    }
+    this.path = path;
+    saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "SimulationCheckpoint saver");
+      thread.setDaemon(true);
+      return thread;
+    });
+    saver.scheduleWithFixedDelay(() -> save(), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  /* Stop saving and save a last time. Throws the first error of any save. */
+  public void finish() throws IOException {
+    ScheduledExecutorService stoppedSaver;
+    synchronized (this) {
+      stoppedSaver = saver;
+      saver = null;
+    }
+    if (stoppedSaver != null) {
+      stoppedSaver.shutdown();
+      try {
+        stoppedSaver.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    save();
+    synchronized (this) {
+      if (saveError != null) {
+        throw saveError;
+      }
+    }
+  }
+
+  private void save() {
+    Path path;
+    ByteBuffer buffer;
+    synchronized (this) {
+      if (this.path == null || saveError != null) {
+        return;
+      }
+      path = this.path;
+      buffer = toBuffer();
+    }
+    try {
+      write(path, buffer);
+    }
+    catch (IOException e) {
+      synchronized (this) {
+        saveError = e;
+      }
+    }
+  }
+
+  private ByteBuffer toBuffer() {
+    long[] words = completedChunks.toLongArray();
+    int numberOfWords = (numberOfChunks + 63) / 64;
+    int numberOfStacks = (stacks != null) ? stacks.length : 0;
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + numberOfWords * 8 + 4 + numberOfStacks * 8
+      + report.getSize());
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(numberOfPlayers);
+    buffer.putLong(numberOfGames).putLong(seed).putInt(numberOfChunks);
+    for (int i = 0; i < numberOfWords; i++) {
+      buffer.putLong(i < words.length ? words[i] : 0);
+    }
+    buffer.putInt(numberOfStacks);
+    for (int i = 0; i < numberOfStacks; i++) {
+      buffer.putLong(stacks[i]);
+    }
+    report.put(buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static void write(Path path, ByteBuffer buffer) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+}
@@ -0,0 +1,298 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SimulationMetrics.java */
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+    Live throughput and latency of a simulation, for JMX and for a
+    periodic text dump.
+
+    Every thread that plays games gets its own Recorder (through a
+    ThreadLocal, looked up once per chunk), created and only written on
+    that thread, so recording a game is a few plain increments and
+    release stores with no contention. Readers add up all recorders when
+    asked, which is where the cost goes.
+
+    Per game a Recorder counts hand evaluations, folds and showdowns.
+    One game in TIMING_INTERVAL is also timed, which keeps the clock reads
+    out of most games, and records three durations: dealing up to the turn
+    (the deck shuffles lazily as it deals, so this is the shuffle too),
+    the evaluations (river equity on the turn and the showdown) and the
+    whole game.
+*/
+
+public final class SimulationMetrics implements SimulationMetricsMBean {
+
+  public static final String OBJECT_NAME = "TexasHoldEm:type=Simulation";
+  public static final int TIMING_INTERVAL = 16;
+
+  private ThreadLocal<Recorder> recorders;
+  private CopyOnWriteArrayList<Recorder> allRecorders;
+  private volatile long startTime;
+  private volatile long totalNumberOfGames;
+  private ScheduledExecutorService dumper;
+
+  public SimulationMetrics() {
+    allRecorders = new CopyOnWriteArrayList<>();
+    recorders    = ThreadLocal.withInitial(() -> {
+      Recorder recorder = new Recorder(Thread.currentThread().getName());
+      allRecorders.add(recorder);
+      return recorder;
+    });
+    startTime    = System.nanoTime();
+  }
+
+  /* Restart the clock for a simulation of specified number of games. */
+  public void start(long totalNumberOfGames) {
+    this.totalNumberOfGames = totalNumberOfGames;
+    startTime = System.nanoTime();
+  }
+
+  /* Return the current thread's recorder. */
+  public Recorder getRecorder()
+    { return recorders.get(); }
+
+  /* Register as OBJECT_NAME with the platform MBean server, replacing
+     any earlier simulation's metrics. */
+  public void register() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(this, name);
+    }
+    catch (JMException e) {
+      throw new IllegalStateException("Cannot register " + OBJECT_NAME + ".", e);
+    }
+  }
+
+  /* Print the summary to out every specified number of seconds until
+     stopDump() is called. */
+  public synchronized void startDump(final PrintStream out, long periodSeconds) {
+    if (periodSeconds < 1) {
+      throw new IllegalArgumentException("Dump period must be at least 1 second.");
+    }
+    stopDump();
+    dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "SimulationMetrics dump");
+      thread.setDaemon(true);
+      return thread;
+    });
+    dumper.scheduleAtFixedRate(() -> out.print(getSummary()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  public synchronized void stopDump() {
+    if (dumper != null) {
+      dumper.shutdownNow();
+      dumper = null;
+    }
+  }
+
+  @Override
+  public long getNumberOfGames()
+    { return getCount(Recorder.GAMES); }
+
+  @Override
+  public long getTotalNumberOfGames()
+    { return totalNumberOfGames; }
+
+  @Override
+  public double getGamesPerSecond()
+    { return getNumberOfGames() / getSeconds(); }
+
+  @Override
+  public long getNumberOfEvaluations()
+    { return getCount(Recorder.EVALUATIONS); }
+
+  @Override
+  public double getEvaluationsPerSecond()
+    { return getNumberOfEvaluations() / getSeconds(); }
+
+  @Override
+  public long getNumberOfFolds()
+    { return getCount(Recorder.FOLDS); }
+
+  @Override
+  public long getNumberOfShowdowns()
+    { return getCount(Recorder.SHOWDOWNS); }
+
+  @Override
+  public double getGameNanosMean()
+    { return getGameNanos().getMean(); }
+
+  @Override
+  public long getGameNanos50thPercentile()
+    { return getGameNanos().getPercentile(50); }
+
+  @Override
+  public long getGameNanos99thPercentile()
+    { return getGameNanos().getPercentile(99); }
+
+  @Override
+  public long getGameNanosMax()
+    { return getGameNanos().getMax(); }
+
+  @Override
+  public double getEvaluationNanosMean()
+    { return getEvaluationNanos().getMean(); }
+
+  @Override
+  public long getEvaluationNanos50thPercentile()
+    { return getEvaluationNanos().getPercentile(50); }
+
+  @Override
+  public long getEvaluationNanos99thPercentile()
+    { return getEvaluationNanos().getPercentile(99); }
+
+  @Override
+  public long getEvaluationNanosMax()
+    { return getEvaluationNanos().getMax(); }
+
+  @Override
+  public double getDealNanosMean()
+    { return getDealNanos().getMean(); }
+
+  @Override
+  public long getDealNanos50thPercentile()
+    { return getDealNanos().getPercentile(50); }
+
+  @Override
+  public long getDealNanos99thPercentile()
+    { return getDealNanos().getPercentile(99); }
+
+  @Override
+  public String[] getWorkerProgress() {
+    Recorder[] workers = allRecorders.toArray(new Recorder[0]);
+    String[] progress = new String[workers.length];
+    for (int i = 0; i < workers.length; i++) {
+      progress[i] = workers[i].threadName + ": " + workers[i].counters.get(Recorder.GAMES) + " games";
+    }
+    return progress;
+  }
+
+  @Override
+  public String getSummary() {
+    long numberOfGames = getNumberOfGames();
+    StringBuilder summary = new StringBuilder();
+    summary.append(String.format("Metrics after %.1f s: %d games", getSeconds(), numberOfGames));
+    if (totalNumberOfGames > 0) {
+      summary.append(String.format(" of %d (%.1f%%)", totalNumberOfGames, 100.0 * numberOfGames / totalNumberOfGames));
+    }
+    summary.append(String.format("%n  %.0f games/s, %.0f evaluations/s, folds: %d, showdowns: %d%n",
+      getGamesPerSecond(), getEvaluationsPerSecond(), getNumberOfFolds(), getNumberOfShowdowns()));
+    appendDurations(summary, "game", getGameNanos());
+    appendDurations(summary, "evaluation", getEvaluationNanos());
+    appendDurations(summary, "deal", getDealNanos());
+    for (String worker : getWorkerProgress()) {
+      summary.append("  ").append(worker).append(String.format("%n"));
+    }
+    return summary.toString();
+  }
+
+  private static void appendDurations(StringBuilder summary, String name, LatencyHistogram histogram) {
+    summary.append(String.format("  %-11s mean %8.0f ns  p50 %8d ns  p99 %8d ns  max %10d ns%n",
+      name + ":", histogram.getMean(), histogram.getPercentile(50), histogram.getPercentile(99),
+      histogram.getMax()));
+  }
+
+  private double getSeconds()
+    { return Math.max(System.nanoTime() - startTime, 1) / 1e9; }
+
+  private long getCount(int counter) {
+    long count = 0;
+    for (Recorder recorder : allRecorders) {
+      count += recorder.counters.get(counter);
+    }
+    return count;
+  }
+
+  private LatencyHistogram getGameNanos() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (Recorder recorder : allRecorders) {
+      histogram.add(recorder.gameNanos);
+    }
+    return histogram;
+  }
+
+  private LatencyHistogram getEvaluationNanos() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (Recorder recorder : allRecorders) {
+      histogram.add(recorder.evaluationNanos);
+    }
+    return histogram;
+  }
+
+  private LatencyHistogram getDealNanos() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (Recorder recorder : allRecorders) {
+      histogram.add(recorder.dealNanos);
+    }
+    return histogram;
+  }
+
+  /* Counters and histograms of one thread. */
+  public static final class Recorder {
+
+    private static final int GAMES       = 0;
+    private static final int EVALUATIONS = 1;
+    private static final int FOLDS       = 2;
+    private static final int SHOWDOWNS   = 3;
+
+    private String threadName;
+    private int numberOfGamesStarted;
+    private AtomicLongArray counters;
+    private LatencyHistogram gameNanos;
+    private LatencyHistogram evaluationNanos;
+    private LatencyHistogram dealNanos;
+
+    private Recorder(String threadName) {
+      this.threadName = threadName;
+      counters        = new AtomicLongArray(SHOWDOWNS + 1);
+      gameNanos       = new LatencyHistogram();
+      evaluationNanos = new LatencyHistogram();
+      dealNanos       = new LatencyHistogram();
+    }
+
+    /* Return true if the game about to start should be timed. Only the
+       recorder's thread may call this and the record methods. */
+    public boolean isTimed()
+      { return (++numberOfGamesStarted & (TIMING_INTERVAL - 1)) == 0; }
+
+    /* Count one game. */
+    public void recordGame(long numberOfEvaluations, int numberOfFolds, boolean isShowdown) {
+      add(GAMES, 1);
+      add(EVALUATIONS, numberOfEvaluations);
+      add(FOLDS, numberOfFolds);
+      if (isShowdown) {
+        add(SHOWDOWNS, 1);
+      }
+    }
+
+    /* Record the durations of a timed game. */
+    public void recordDurations(long dealNanos, long evaluationNanos, long gameNanos) {
+      this.dealNanos.record(dealNanos);
+      this.evaluationNanos.record(evaluationNanos);
+      this.gameNanos.record(gameNanos);
+    }
+
+    private void add(int counter, long delta)
+      { counters.setRelease(counter, counters.getPlain(counter) + delta); }
+
+  }
+
+}
@@ -0,0 +1,59 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SimulationMetricsMBean.java */
+
+/*
+    JMX view of a running simulation, registered by SimulationMetrics as
+    TexasHoldEm:type=Simulation. Rates are averages since the simulation
+    started; durations are in nanoseconds, from a sample of the games.
+*/
+
+public interface SimulationMetricsMBean {
+
+  long getNumberOfGames();
+
+  /* Number of games the simulation will play, 0 if unknown. */
+  long getTotalNumberOfGames();
+
+  double getGamesPerSecond();
+
+  long getNumberOfEvaluations();
+
+  double getEvaluationsPerSecond();
+
+  long getNumberOfFolds();
+
+  long getNumberOfShowdowns();
+
+  double getGameNanosMean();
+
+  long getGameNanos50thPercentile();
+
+  long getGameNanos99thPercentile();
+
+  long getGameNanosMax();
+
+  double getEvaluationNanosMean();
+
+  long getEvaluationNanos50thPercentile();
+
+  long getEvaluationNanos99thPercentile();
+
+  long getEvaluationNanosMax();
+
+  double getDealNanosMean();
+
+  long getDealNanos50thPercentile();
+
+  long getDealNanos99thPercentile();
+
+  /* One "thread: games" line per worker thread. */
+  String[] getWorkerProgress();
+
+  /* The text printed by a periodic dump. */
+  String getSummary();
+
+}
@@ -0,0 +1,306 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SimulationReport.java */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+    Counters of a simulation. Everything is a long in a plain array indexed
+    by seat, by degree (0 Royal Flush ... 9 High Card) or by exact hand
+    strength (1-7462), so adding a game does no boxing or string lookups
+    and reports of different threads merge by adding arrays.
+
+    Games played for chips (Game.setStacks()) also count each seat's net
+    chips won and the number of pots, printed as averages per game.
+
+    Frequencies are printed with a 95% confidence interval (normal
+    approximation) to show how far a run can be trusted.
+
+    put() and get() save and load every counter and player name, for
+    SimulationCheckpoint.
+*/
+
+public final class SimulationReport {
+
+  private static final int NUMBER_OF_DEGREES = 10;
+  private static final double Z_95 = 1.96;
+
+  private long numberOfGames;
+  private long numberOfGamesPlayed;   /* games where someone did not fold */
+  private long numberOfShowdownHands; /* hands shown in those games */
+  private long numberOfTimesBestHandWasWinningHand;
+  private long numberOfAllInGames;    /* games played for chips */
+  private long numberOfPots;          /* main and side pots of those games */
+  private long[] wins;
+  private long[] ties;
+  private long[] folds;
+  private long[] winningDegrees;
+  private long[] showdownDegrees;
+  private long[] winningHandClasses;
+  private long[] chips;               /* net chips won by seat */
+  private String[] playerNames;
+
+  public SimulationReport() {
+    wins               = new long[Game.MAX_PLAYERS];
+    ties               = new long[Game.MAX_PLAYERS];
+    folds              = new long[Game.MAX_PLAYERS];
+    winningDegrees     = new long[NUMBER_OF_DEGREES];
+    showdownDegrees    = new long[NUMBER_OF_DEGREES];
+    winningHandClasses = new long[HandEvaluator.NUMBER_OF_HAND_CLASSES + 1];
+    chips              = new long[Game.MAX_PLAYERS];
+    playerNames        = new String[0];
+  }
+
+  /* Add result of one game given each seat's final strength, the winners
+     and the players with the highest hand (folded or not). */
+  public void addGame(ArrayList<Player> players, StreetEvaluator hands,
+      ArrayList<Integer> listOfWinners, ArrayList<Integer> listOfAllWinners) {
+    if (playerNames.length != players.size()) {
+      playerNames = new String[players.size()];
+      for (int i = 0; i < players.size(); i++) {
+        playerNames[i] = players.get(i).getName();
+      }
+    }
+
+    numberOfGames++;
+    for (int i = 0; i < players.size(); i++) {
+      if (players.get(i).hasFolded()) {
+        folds[i]++;
+      }
+      else {
+        showdownDegrees[Rank.getDegree(hands.getStrength(i))]++;
+        numberOfShowdownHands++;
+      }
+    }
+
+    if (listOfWinners.size() > 0) {
+      int winningStrength = hands.getStrength(listOfWinners.get(0));
+      numberOfGamesPlayed++;
+      winningDegrees[Rank.getDegree(winningStrength)]++;
+      winningHandClasses[winningStrength]++;
+      if (winningStrength == hands.getStrength(listOfAllWinners.get(0))) {
+        numberOfTimesBestHandWasWinningHand++;
+      }
+      for (int i = 0; i < listOfWinners.size(); i++) {
+        int winner = listOfWinners.get(i);
+        wins[winner]++;
+        if (listOfWinners.size() > 1) {
+          ties[winner]++;
+        }
+      }
+    }
+  }
+
+  /* Add the chips of one all-in showdown given what each seat put in and
+     the pots paid out. */
+  public void addAllIn(int numberOfPlayers, long[] contributions, SidePots sidePots) {
+    numberOfAllInGames++;
+    numberOfPots += sidePots.getNumberOfPots();
+    for (int i = 0; i < numberOfPlayers; i++) {
+      chips[i] += sidePots.getPayout(i) - contributions[i];
+    }
+  }
+
+  /* Reset every counter to 0, keeping the player names. */
+  public void clear() {
+    numberOfGames = 0;
+    numberOfGamesPlayed = 0;
+    numberOfShowdownHands = 0;
+    numberOfTimesBestHandWasWinningHand = 0;
+    numberOfAllInGames = 0;
+    numberOfPots = 0;
+    Arrays.fill(wins, 0);
+    Arrays.fill(ties, 0);
+    Arrays.fill(folds, 0);
+    Arrays.fill(winningDegrees, 0);
+    Arrays.fill(showdownDegrees, 0);
+    Arrays.fill(winningHandClasses, 0);
+    Arrays.fill(chips, 0);
+  }
+
+  public void merge(SimulationReport other) {
+    if (playerNames.length < other.playerNames.length) {
+      playerNames = other.playerNames;
+    }
+    numberOfGames += other.numberOfGames;
+    numberOfGamesPlayed += other.numberOfGamesPlayed;
+    numberOfShowdownHands += other.numberOfShowdownHands;
+    numberOfTimesBestHandWasWinningHand += other.numberOfTimesBestHandWasWinningHand;
+    numberOfAllInGames += other.numberOfAllInGames;
+    numberOfPots += other.numberOfPots;
+    add(wins, other.wins);
+    add(ties, other.ties);
+    add(folds, other.folds);
+    add(winningDegrees, other.winningDegrees);
+    add(showdownDegrees, other.showdownDegrees);
+    add(winningHandClasses, other.winningHandClasses);
+    add(chips, other.chips);
+  }
+
+  /* Return number of bytes put() writes. */
+  public int getSize() {
+    int size = 6 * 8 + 4 + 8 * (wins.length + ties.length + folds.length + winningDegrees.length
+      + showdownDegrees.length + winningHandClasses.length + chips.length);
+    for (String name : playerNames) {
+      size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+    }
+    return size;
+  }
+
+  /* Append every counter and player name to buffer. */
+  public void put(ByteBuffer buffer) {
+    buffer.putLong(numberOfGames);
+    buffer.putLong(numberOfGamesPlayed);
+    buffer.putLong(numberOfShowdownHands);
+    buffer.putLong(numberOfTimesBestHandWasWinningHand);
+    buffer.putLong(numberOfAllInGames);
+    buffer.putLong(numberOfPots);
+    putCounts(buffer, wins);
+    putCounts(buffer, ties);
+    putCounts(buffer, folds);
+    putCounts(buffer, winningDegrees);
+    putCounts(buffer, showdownDegrees);
+    putCounts(buffer, winningHandClasses);
+    putCounts(buffer, chips);
+    buffer.putInt(playerNames.length);
+    for (String name : playerNames) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      buffer.putShort((short)bytes.length);
+      buffer.put(bytes);
+    }
+  }
+
+  /* Read a report written by put() from buffer. */
+  public static SimulationReport get(ByteBuffer buffer) {
+    SimulationReport report = new SimulationReport();
+    report.numberOfGames                       = buffer.getLong();
+    report.numberOfGamesPlayed                 = buffer.getLong();
+    report.numberOfShowdownHands               = buffer.getLong();
+    report.numberOfTimesBestHandWasWinningHand = buffer.getLong();
+    report.numberOfAllInGames                  = buffer.getLong();
+    report.numberOfPots                        = buffer.getLong();
+    getCounts(buffer, report.wins);
+    getCounts(buffer, report.ties);
+    getCounts(buffer, report.folds);
+    getCounts(buffer, report.winningDegrees);
+    getCounts(buffer, report.showdownDegrees);
+    getCounts(buffer, report.winningHandClasses);
+    getCounts(buffer, report.chips);
+    report.playerNames = new String[buffer.getInt()];
+    for (int i = 0; i < report.playerNames.length; i++) {
+      byte[] bytes = new byte[buffer.getShort()];
+      buffer.get(bytes);
+      report.playerNames[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return report;
+  }
+
+  public long getNumberOfGames()
+    { return numberOfGames; }
+
+  public long getNumberOfGamesPlayed()
+    { return numberOfGamesPlayed; }
+
+  public long getWins(int seat)
+    { return wins[seat]; }
+
+  public long getTies(int seat)
+    { return ties[seat]; }
+
+  public long getFolds(int seat)
+    { return folds[seat]; }
+
+  public long getWinningDegreeCount(int degree)
+    { return winningDegrees[degree]; }
+
+  public long getShowdownDegreeCount(int degree)
+    { return showdownDegrees[degree]; }
+
+  public long getWinningHandClassCount(int strength)
+    { return winningHandClasses[strength]; }
+
+  /* Return net chips won by seat in games played for chips. */
+  public long getChips(int seat)
+    { return chips[seat]; }
+
+  public long getNumberOfPots()
+    { return numberOfPots; }
+
+  public void print() {
+    System.out.println("----- Simulation Report -----");
+    System.out.println("Number of total rounds/games played out: " + numberOfGamesPlayed);
+    System.out.println("Number of wins-losses for each player:");
+    for (int i = 0; i < playerNames.length; i++) {
+      double percent = (double)wins[i] / (double)numberOfGames * (double)100;
+      System.out.print("  " + playerNames[i] + ": " + wins[i] + "-" + (numberOfGames-wins[i]));
+      System.out.printf(" (%.1f%%)", percent);
+      System.out.printf("  ties: %d (%.1f%%)", ties[i], (double)ties[i] / numberOfGames * 100);
+      System.out.printf("  folds: %d (%.1f%%)\n", folds[i], (double)folds[i] / numberOfGames * 100);
+    }
+    System.out.println("Number of times best hand was highest hand: "+ numberOfTimesBestHandWasWinningHand);
+    System.out.println("Winning hand count: ");
+    printDegrees(winningDegrees, numberOfGamesPlayed);
+    System.out.println("Showdown hand count: ");
+    printDegrees(showdownDegrees, numberOfShowdownHands);
+    if (numberOfAllInGames > 0) {
+      System.out.println("Net chips won per game for each player:");
+      for (int i = 0; i < playerNames.length; i++) {
+        System.out.printf("  %s: %+.2f\n", playerNames[i], (double)chips[i] / numberOfAllInGames);
+      }
+      System.out.printf("Pots per game: %.4f\n", (double)numberOfPots / numberOfAllInGames);
+    }
+  }
+
+  /* Print every hand class that won at least once, strongest first. */
+  public void printHandClasses() {
+    System.out.println("Winning hand class count: ");
+    for (int strength = HandEvaluator.NUMBER_OF_HAND_CLASSES; strength >= 1; strength--) {
+      if (winningHandClasses[strength] > 0) {
+        System.out.printf("%12d  ", winningHandClasses[strength]);
+        printFrequency(winningHandClasses[strength], numberOfGamesPlayed);
+        System.out.println(Rank.getHandClassString(strength));
+      }
+    }
+  }
+
+  private static void printDegrees(long[] counts, long total) {
+    for (int degree = 0; degree < NUMBER_OF_DEGREES; degree++) {
+      if (counts[degree] > 0) {
+        System.out.printf("%12d  ", counts[degree]);
+        printFrequency(counts[degree], total);
+        System.out.println(Rank.degreeToString(degree));
+      }
+    }
+  }
+
+  private static void printFrequency(long count, long total) {
+    double p = (double)count / total;
+    double interval = Z_95 * Math.sqrt(p * (1 - p) / total);
+    System.out.printf("(%9.5f%% +/- %.5f%%)  ", p * 100, interval * 100);
+  }
+
+  private static void putCounts(ByteBuffer buffer, long[] counts) {
+    for (long count : counts) {
+      buffer.putLong(count);
+    }
+  }
+
+  private static void getCounts(ByteBuffer buffer, long[] counts) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buffer.getLong();
+    }
+  }
+
+  private static void add(long[] destination, long[] source) {
+    for (int i = 0; i < destination.length; i++) {
+      destination[i] += source[i];
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Strategy.java */
+
+/*
+    Decides for a player. Every Player has one; Game asks it at each
+    decision point of a game, which is the turn: stay in or fold.
+
+    The game is seen through a read-only View. Cards are CardSets (plain
+    longs) and everything else is a primitive, so a decision can be made
+    without allocating. Every hole card is visible, as in the simulation
+    this challenge asks for.
+
+    A strategy is called on the thread playing the game. One instance may
+    be shared by the players of one Game, but only a thread safe strategy
+    may be shared by Games on different threads.
+*/
+
+public interface Strategy {
+
+  /* Read-only view of the game being played. */
+  interface View {
+    int getNumberOfPlayers();
+    /* Return number of the game being played. */
+    long getGameNumber();
+    /* Return community cards as a CardSet. */
+    long getBoard();
+    long getHoleCards(int seat);
+    boolean hasFolded(int seat);
+    /* Return strength (1-7462) of seat's best hand on the current street. */
+    int getStrength(int seat);
+    /* Return seat's chips when the game is played for chips, else 0. */
+    long getStack(int seat);
+  }
+
+  /* Return true if seat stays in on the turn, false if it folds. Every
+     player decides before any fold is applied, so all of them see the
+     same game. */
+  boolean staysIn(View view, int seat);
+
+}
@@ -0,0 +1,107 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* StreetEvaluator.java */
+
+/*
+    Tracks every seat's hand while a game is dealt.
+
+    The board is analysed once for all seats as its cards are dealt: its
+    HandEvaluator value state (the multiset of values, which also settles
+    pairs and straights) and the one suit, if any, with three or more
+    cards, the only suit in which a seat can still make a flush with its
+    two hole cards. A seat is then scored by adding just its hole cards to
+    the board's state and looking at that one suit.
+
+    A seat's strength is computed the first time it is asked for on a
+    street (flop, turn, river) and reused until the next community card,
+    so the fold decision, the winners and the report all share one score
+    per seat.
+*/
+
+public final class StreetEvaluator {
+
+  private int numberOfSeats;
+  private long[] holeCards;
+  private int[] strengths;   /* 0 until computed for the current street */
+  private long board;
+  private int boardState;
+  private int boardSize;
+  private int flushSuit;     /* suit with 3 or more board cards, 0 if none */
+  private int numberOfEvaluations; /* since reset */
+
+  public StreetEvaluator(int maxSeats) {
+    holeCards = new long[maxSeats];
+    strengths = new int[maxSeats];
+    reset(0);
+  }
+
+  /* Clear every hand and the board for a new game. */
+  public void reset(int numberOfSeats) {
+    this.numberOfSeats = numberOfSeats;
+    for (int seat = 0; seat < holeCards.length; seat++) {
+      holeCards[seat] = CardSet.EMPTY;
+      strengths[seat] = 0;
+    }
+    board      = CardSet.EMPTY;
+    boardState = 0;
+    boardSize  = 0;
+    flushSuit  = 0;
+    numberOfEvaluations = 0;
+  }
+
+  public void addHoleCard(int seat, Card card) {
+    holeCards[seat] |= card.getMask();
+    strengths[seat]  = 0;
+  }
+
+  public void addCommunityCard(Card card) {
+    board     |= card.getMask();
+    boardState = HandEvaluator.addCard(boardState, card);
+    boardSize++;
+    if (Integer.bitCount(CardSet.getSuitMask(board, card.getSuit())) >= 3) {
+      flushSuit = card.getSuit();
+    }
+    for (int seat = 0; seat < numberOfSeats; seat++) {
+      strengths[seat] = 0;
+    }
+  }
+
+  /* Return strength of seat's best hand on the current street, or 0
+     before the flop. */
+  public int getStrength(int seat) {
+    if (strengths[seat] == 0 && boardSize >= 3) {
+      strengths[seat] = HandEvaluator.evaluate(HandEvaluator.addCards(boardState, holeCards[seat]),
+        board | holeCards[seat], flushSuit);
+      numberOfEvaluations++;
+    }
+    return strengths[seat];
+  }
+
+  /* Return number of hands scored since the last reset. */
+  public int getNumberOfEvaluations()
+    { return numberOfEvaluations; }
+
+  public int getNumberOfSeats()
+    { return numberOfSeats; }
+
+  /* Return seat's hole and community cards as a CardSet. */
+  public long getCards(int seat)
+    { return board | holeCards[seat]; }
+
+  public long getHoleCards(int seat)
+    { return holeCards[seat]; }
+
+  public long getBoard()
+    { return board; }
+
+  public int getBoardState()
+    { return boardState; }
+
+  /* Return the suit with 3 or more community cards, or 0 if none has. */
+  public int getFlushSuit()
+    { return flushSuit; }
+
+}
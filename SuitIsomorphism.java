@@ -0,0 +1,486 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* SuitIsomorphism.java */
+
+/*
+    Hands that differ only by a relabeling of the four suits play the
+    same, so exhaustive enumeration, tables and caches need only visit
+    one hand of each class and weigh it by the class's multiplicity (the
+    number of hands in it). There are 22,100 flops but 1,755 classes,
+    1,326 starting hands but 169, and 25,989,600 hole cards and flops but
+    1,286,792.
+
+    A hand is given as rounds of cards dealt together, e.g. hole cards and
+    board, each a CardSet. Suits are compared by their cards in each round
+    (a suit's 13-bit lane of the first round, then of the second, ...).
+
+    canonicalize() relabels the suits in descending order of those masks,
+    which maps every hand of a class to the same rounds. It works for any
+    number of rounds, so it also canonicalizes spots of many players, e.g.
+    as cache keys. The multiplicity is 24 divided by the number of suit
+    relabelings that leave the hand as it is, i.e. the product of k! over
+    every group of k suits that hold exactly the same cards.
+
+    An instance for a fixed number of cards per round also numbers the
+    classes densely, 0 to getSize() - 1, in the manner of Waugh's hand
+    isomorphism indexer: a suit's cards in all rounds are one
+    configuration, numbered within its shape (how many cards it has in
+    each round); the hand is the multiset of its four suits'
+    configurations. Hands are grouped by the multiset of their suits'
+    shapes, and within a group numbered by ranking, for each shape, the
+    multiset of configurations of that shape (combinatorial number system
+    with repetition). index() and unindex() are exact inverses on
+    canonical hands, and neither allocates.
+*/
+
+public final class SuitIsomorphism {
+
+  private static final int NUMBER_OF_SUITS  = 4;
+  private static final int NUMBER_OF_VALUES = 13;
+  private static final int MAX_ROUNDS       = 4;
+  private static final int LANE_BITS        = 16;
+  private static final int VALUE_MASK       = 0x1FFF;
+  private static final int[] FACTORIALS     = { 1, 1, 2, 6, 24 };
+  private static final int[][] BINOMIALS    = new int[NUMBER_OF_VALUES + 1][NUMBER_OF_VALUES + 1];
+
+  static {
+    for (int n = 0; n <= NUMBER_OF_VALUES; n++) {
+      BINOMIALS[n][0] = 1;
+      for (int k = 1; k <= n; k++) {
+        BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + ((k < n) ? BINOMIALS[n - 1][k] : 0);
+      }
+    }
+  }
+
+  private int[] cardsPerRound;
+  private long[] shapeKeys;     /* shapes of the four suits, ascending */
+  private long[] shapeOffsets;  /* index of the first hand of each shape */
+  private long size;
+  private int[] suitShapes;     /* scratch: shape of each suit */
+  private int[] configurations; /* scratch: configuration of each suit */
+
+  /* Number classes of hands dealt in rounds of specified numbers of cards,
+     e.g. (2, 3) for hole cards and flop. */
+  public SuitIsomorphism(int... cardsPerRound) {
+    int numberOfCards = 0;
+    for (int cards : cardsPerRound) {
+      if (cards < 1) {
+        throw new IllegalArgumentException("Every round must have at least one card.");
+      }
+      numberOfCards += cards;
+    }
+    if (cardsPerRound.length < 1 || cardsPerRound.length > MAX_ROUNDS || numberOfCards > 7) {
+      throw new IllegalArgumentException("Need 1-" + MAX_ROUNDS + " rounds of at most 7 cards in all.");
+    }
+    this.cardsPerRound = cardsPerRound.clone();
+    suitShapes         = new int[NUMBER_OF_SUITS];
+    configurations     = new int[NUMBER_OF_SUITS];
+
+    /* Every shape a suit can have, then every multiset of four of them
+       that deals each round's cards, with its number of hands. */
+    int[] shapes = new int[1 << (4 * cardsPerRound.length)];
+    int numberOfShapes = 0;
+    for (int shape = 0; shape < shapes.length; shape++) {
+      int cards = 0;
+      boolean fits = true;
+      for (int round = 0; round < cardsPerRound.length; round++) {
+        int count = getCount(shape, round);
+        cards += count;
+        fits &= (count <= cardsPerRound[round]);
+      }
+      if (fits && cards <= NUMBER_OF_VALUES) {
+        shapes[numberOfShapes++] = shape;
+      }
+    }
+    long[] keys = new long[numberOfShapes * numberOfShapes * numberOfShapes * numberOfShapes];
+    long[] sizes = new long[keys.length];
+    int numberOfKeys = 0;
+    for (int a = 0; a < numberOfShapes; a++) {
+      for (int b = 0; b <= a; b++) {
+        for (int c = 0; c <= b; c++) {
+          for (int d = 0; d <= c; d++) {
+            int[] suits = { shapes[a], shapes[b], shapes[c], shapes[d] };
+            if (dealsRounds(suits)) {
+              keys[numberOfKeys] = getShapeKey(suits);
+              sizes[numberOfKeys] = getNumberOfHands(suits);
+              numberOfKeys++;
+            }
+          }
+        }
+      }
+    }
+    shapeKeys    = new long[numberOfKeys];
+    shapeOffsets = new long[numberOfKeys];
+    System.arraycopy(keys, 0, shapeKeys, 0, numberOfKeys);
+    java.util.Arrays.sort(shapeKeys);
+    for (int i = 0; i < numberOfKeys; i++) {
+      int j = 0;
+      while (keys[j] != shapeKeys[i]) {
+        j++;
+      }
+      shapeOffsets[i] = size;
+      size = Math.addExact(size, sizes[j]);
+    }
+  }
+
+  /* Return number of classes. */
+  public long getSize()
+    { return size; }
+
+  public int getNumberOfRounds()
+    { return cardsPerRound.length; }
+
+  /* Return index (0 to getSize() - 1) of the class of a hand given as one
+     CardSet per round; the same for every hand of the class. */
+  public long index(long[] rounds) {
+    for (int suit = 0; suit < NUMBER_OF_SUITS; suit++) {
+      suitShapes[suit] = 0;
+      configurations[suit] = 0;
+      int used = 0;
+      for (int round = 0; round < cardsPerRound.length; round++) {
+        int cards = getLane(rounds[round], suit);
+        int available = VALUE_MASK & ~used;
+        int count = Integer.bitCount(cards);
+        if ((cards & used) != 0) {
+          throw new IllegalArgumentException("A card is dealt in two rounds.");
+        }
+        suitShapes[suit] |= count << (4 * round);
+        configurations[suit] = configurations[suit] * BINOMIALS[Integer.bitCount(available)][count]
+          + rankSubset(cards, available);
+        used |= cards;
+      }
+    }
+
+    /* Suits in descending order of shape, then configuration. */
+    for (int i = 1; i < NUMBER_OF_SUITS; i++) {
+      for (int j = i; j > 0 && compare(j - 1, j) < 0; j--) {
+        swap(j - 1, j);
+      }
+    }
+    int shape = java.util.Arrays.binarySearch(shapeKeys, getShapeKey(suitShapes));
+    if (shape < 0) {
+      throw new IllegalArgumentException("The rounds must have " + java.util.Arrays.toString(cardsPerRound)
+        + " cards.");
+    }
+
+    long rank = 0;
+    for (int first = 0, last; first < NUMBER_OF_SUITS; first = last) {
+      last = first + 1;
+      while (last < NUMBER_OF_SUITS && suitShapes[last] == suitShapes[first]) {
+        last++;
+      }
+      int groupSize = last - first;
+      long groupRank = 0;
+      for (int i = 0; i < groupSize; i++) {
+        groupRank += binomial(configurations[first + i] + groupSize - 1 - i, groupSize - i);
+      }
+      rank = rank * binomial(getNumberOfConfigurations(suitShapes[first]) + groupSize - 1, groupSize)
+        + groupRank;
+    }
+    return shapeOffsets[shape] + rank;
+  }
+
+  /* Fill rounds with the canonical hand of specified class. */
+  public void unindex(long index, long[] rounds) {
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException("Index must be 0-" + (size - 1) + ".");
+    }
+    int shape = java.util.Arrays.binarySearch(shapeOffsets, index); /* offsets ascend strictly */
+    if (shape < 0) {
+      shape = -shape - 2;
+    }
+    long key = shapeKeys[shape];
+    for (int suit = 0; suit < NUMBER_OF_SUITS; suit++) {
+      suitShapes[suit] = (int)(key >>> (LANE_BITS * (NUMBER_OF_SUITS - 1 - suit))) & 0xFFFF;
+    }
+
+    /* Undo the mixed radix of the groups, last group first. */
+    long rank = index - shapeOffsets[shape];
+    for (int last = NUMBER_OF_SUITS, first; last > 0; last = first) {
+      first = last - 1;
+      while (first > 0 && suitShapes[first - 1] == suitShapes[last - 1]) {
+        first--;
+      }
+      int groupSize = last - first;
+      int numberOfConfigurations = getNumberOfConfigurations(suitShapes[first]);
+      long radix = binomial(numberOfConfigurations + groupSize - 1, groupSize);
+      long groupRank = rank % radix;
+      rank /= radix;
+      for (int i = 0; i < groupSize; i++) {
+        int k = groupSize - i;
+        long b = largestBinomialBelow(groupRank, k, numberOfConfigurations + groupSize - 1);
+        groupRank -= binomial(b, k);
+        configurations[first + i] = (int)b - (groupSize - 1 - i);
+      }
+    }
+
+    for (int round = 0; round < cardsPerRound.length; round++) {
+      rounds[round] = CardSet.EMPTY;
+    }
+    for (int suit = 0; suit < NUMBER_OF_SUITS; suit++) {
+      /* The first round is the most significant digit, so divide by the
+         later rounds' radices; they only depend on the shape. */
+      int shapeOfSuit = suitShapes[suit];
+      int configuration = configurations[suit];
+      int divisor = getNumberOfConfigurations(shapeOfSuit);
+      int used = 0;
+      for (int round = 0; round < cardsPerRound.length; round++) {
+        int count = getCount(shapeOfSuit, round);
+        divisor /= BINOMIALS[NUMBER_OF_VALUES - Integer.bitCount(used)][count];
+        int cards = unrankSubset(configuration / divisor, count, VALUE_MASK & ~used);
+        configuration %= divisor;
+        rounds[round] |= (long)cards << (LANE_BITS * suit);
+        used |= cards;
+      }
+    }
+    canonicalize(rounds, cardsPerRound.length, rounds);
+  }
+
+  /* Write to canonicalRounds (which may be rounds) the first
+     numberOfRounds rounds of a hand with its suits relabeled in
+     descending order of their cards, the same for every hand of its
+     class, and return the number of hands in the class (1 to 24). */
+  public static int canonicalize(long[] rounds, int numberOfRounds, long[] canonicalRounds) {
+    /* Order of the suits, two bits each, best first, by insertion sort. */
+    int order = 0;
+    for (int suit = 1; suit < NUMBER_OF_SUITS; suit++) {
+      int position = suit;
+      while (position > 0 && compareSuits(rounds, numberOfRounds, getSuit(order, position - 1), suit) < 0) {
+        order = setSuit(order, position, getSuit(order, position - 1));
+        position--;
+      }
+      order = setSuit(order, position, suit);
+    }
+
+    int stabilizer = 1;
+    int groupSize = 1;
+    for (int position = 1; position < NUMBER_OF_SUITS; position++) {
+      if (compareSuits(rounds, numberOfRounds, getSuit(order, position - 1), getSuit(order, position)) == 0) {
+        groupSize++;
+      }
+      else {
+        stabilizer *= FACTORIALS[groupSize];
+        groupSize = 1;
+      }
+    }
+    stabilizer *= FACTORIALS[groupSize];
+
+    for (int round = 0; round < numberOfRounds; round++) {
+      long cards = rounds[round];
+      long canonical = CardSet.EMPTY;
+      for (int position = 0; position < NUMBER_OF_SUITS; position++) {
+        canonical |= (long)getLane(cards, getSuit(order, position)) << (LANE_BITS * position);
+      }
+      canonicalRounds[round] = canonical;
+    }
+    return FACTORIALS[NUMBER_OF_SUITS] / stabilizer;
+  }
+
+  /* Print the number of classes for rounds of cards given as arguments,
+     and with --check verify every class by unindexing and indexing it and
+     adding up the multiplicities. */
+  public static void main(String[] args) {
+    boolean check = false;
+    int[] cardsPerRound = new int[args.length];
+    int numberOfRounds = 0;
+    for (String arg : args) {
+      if (arg.equals("--check")) {
+        check = true;
+      }
+      else {
+        cardsPerRound[numberOfRounds++] = Integer.parseInt(arg);
+      }
+    }
+    if (numberOfRounds == 0) {
+      System.out.println("Usage: java SuitIsomorphism CARDS [CARDS...] [--check]\n"
+        + "  e.g. 3 for flops, 2 3 for hole cards and flop.");
+      return;
+    }
+    SuitIsomorphism isomorphism = new SuitIsomorphism(java.util.Arrays.copyOf(cardsPerRound, numberOfRounds));
+    long numberOfHands = 1;
+    int cardsLeft = Card.NUMBER_OF_CARDS;
+    for (int round = 0; round < numberOfRounds; round++) {
+      numberOfHands *= binomial(cardsLeft, cardsPerRound[round]);
+      cardsLeft -= cardsPerRound[round];
+    }
+    System.out.printf("%,d classes of %,d hands (%.1fx fewer)%n", isomorphism.getSize(), numberOfHands,
+      (double)numberOfHands / isomorphism.getSize());
+    if (!check) {
+      return;
+    }
+
+    long[] rounds = new long[numberOfRounds];
+    long[] canonicalRounds = new long[numberOfRounds];
+    long sum = 0;
+    long numberOfErrors = 0;
+    for (long index = 0; index < isomorphism.getSize(); index++) {
+      isomorphism.unindex(index, rounds);
+      sum += canonicalize(rounds, numberOfRounds, canonicalRounds);
+      if (isomorphism.index(rounds) != index || !java.util.Arrays.equals(rounds, canonicalRounds)) {
+        numberOfErrors++;
+      }
+    }
+    System.out.printf("Sum of multiplicities: %,d, classes that do not round trip: %d %s%n", sum,
+      numberOfErrors, (sum == numberOfHands && numberOfErrors == 0) ? "PASS" : "FAIL");
+    if (sum != numberOfHands || numberOfErrors != 0) {
+      System.exit(1);
+    }
+  }
+
+  /* Compare two suits (0-3) of a hand by their cards in each round. */
+  private static int compareSuits(long[] rounds, int numberOfRounds, int suit1, int suit2) {
+    for (int round = 0; round < numberOfRounds; round++) {
+      int cards1 = getLane(rounds[round], suit1);
+      int cards2 = getLane(rounds[round], suit2);
+      if (cards1 != cards2) {
+        return Integer.compare(cards1, cards2);
+      }
+    }
+    return 0;
+  }
+
+  private static int getSuit(int order, int position)
+    { return (order >>> (2 * position)) & 3; }
+
+  private static int setSuit(int order, int position, int suit)
+    { return (order & ~(3 << (2 * position))) | (suit << (2 * position)); }
+
+  /* Return 13-bit mask of a suit (0-3) of a CardSet. */
+  private static int getLane(long cards, int suit)
+    { return (int)(cards >>> (LANE_BITS * suit)) & VALUE_MASK; }
+
+  private static int getCount(int shape, int round)
+    { return (shape >>> (4 * round)) & 0xF; }
+
+  /* Return true if the four suits' shapes deal exactly each round's cards. */
+  private boolean dealsRounds(int[] suits) {
+    for (int round = 0; round < cardsPerRound.length; round++) {
+      int cards = 0;
+      for (int shape : suits) {
+        cards += getCount(shape, round);
+      }
+      if (cards != cardsPerRound[round]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /* Return key of four suit shapes in descending order. */
+  private static long getShapeKey(int[] suits) {
+    long key = 0;
+    for (int shape : suits) {
+      key = key << LANE_BITS | shape;
+    }
+    return key;
+  }
+
+  /* Return number of classes of hands whose suits have the four shapes,
+     in descending order. */
+  private static long getNumberOfHands(int[] suits) {
+    long hands = 1;
+    for (int first = 0, last; first < NUMBER_OF_SUITS; first = last) {
+      last = first + 1;
+      while (last < NUMBER_OF_SUITS && suits[last] == suits[first]) {
+        last++;
+      }
+      int groupSize = last - first;
+      hands = Math.multiplyExact(hands, binomial(getNumberOfConfigurations(suits[first]) + groupSize - 1,
+        groupSize));
+    }
+    return hands;
+  }
+
+  /* Return number of ways one suit can hold the cards of a shape. */
+  private static int getNumberOfConfigurations(int shape) {
+    int configurations = 1;
+    int used = 0;
+    for (int round = 0; round < MAX_ROUNDS; round++) {
+      int count = getCount(shape, round);
+      configurations *= BINOMIALS[NUMBER_OF_VALUES - used][count];
+      used += count;
+    }
+    return configurations;
+  }
+
+  /* Compare the suits at positions i and j by shape, then configuration. */
+  private int compare(int i, int j) {
+    if (suitShapes[i] != suitShapes[j]) {
+      return Integer.compare(suitShapes[i], suitShapes[j]);
+    }
+    return Integer.compare(configurations[i], configurations[j]);
+  }
+
+  private void swap(int i, int j) {
+    int shape = suitShapes[i];
+    suitShapes[i] = suitShapes[j];
+    suitShapes[j] = shape;
+    int configuration = configurations[i];
+    configurations[i] = configurations[j];
+    configurations[j] = configuration;
+  }
+
+  /* Return colex rank of cards among the available values. */
+  private static int rankSubset(int cards, int available) {
+    int rank = 0;
+    int k = 1;
+    for (int m = cards; m != 0; m &= m - 1, k++) {
+      int position = Integer.bitCount(available & ((m & -m) - 1));
+      rank += (position >= k) ? BINOMIALS[position][k] : 0;
+    }
+    return rank;
+  }
+
+  /* Return the count available values with specified colex rank. */
+  private static int unrankSubset(int rank, int count, int available) {
+    int cards = 0;
+    for (int k = count; k >= 1; k--) {
+      int position = k - 1;
+      while (position + 1 <= NUMBER_OF_VALUES && BINOMIALS[position + 1][k] <= rank) {
+        position++;
+      }
+      rank -= (position >= k) ? BINOMIALS[position][k] : 0;
+      cards |= selectBit(available, position);
+    }
+    return cards;
+  }
+
+  /* Return bit of the n-th (from 0) set bit of mask. */
+  private static int selectBit(int mask, int n) {
+    for (int i = 0; i < n; i++) {
+      mask &= mask - 1;
+    }
+    return mask & -mask;
+  }
+
+  /* Return the largest b (below limit) with binomial(b, k) <= rank. */
+  private static long largestBinomialBelow(long rank, int k, long limit) {
+    long low = k - 1;
+    long high = limit;
+    while (low < high) {
+      long middle = (low + high + 1) >>> 1;
+      if (binomial(middle, k) <= rank) {
+        low = middle;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private static long binomial(long n, int k) {
+    if (k < 0 || n < k) {
+      return 0;
+    }
+    long result = 1;
+    for (int i = 1; i <= k; i++) {
+      result = result * (n - k + i) / i;
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* Table.java */
+
+import java.util.ArrayList;
+
+/*
+    One table of a TableServer: a Game of its own, played game after game
+    on the table's thread, with some seats taken by remote HUMAN players
+    and the rest by CPU players.
+
+    The table is the Game's listener. It sends every step of a game to
+    the remote players in the TableServer protocol, and on the turn it
+    asks each remote player in turn to STAY or FOLD, waiting up to
+    DECISION_TIMEOUT_MILLIS. A player who does not answer in time folds;
+    a player who has left folds every game. The table closes when all of
+    its remote players have left.
+*/
+
+public final class Table implements Runnable, Game.Listener {
+
+  public static final long DECISION_TIMEOUT_MILLIS = 30000;
+
+  private int numberOfPlayers;
+  private TableServer.Connection[] connections; /* of the first seats */
+  private int numberOfConnections;
+  private long seed;
+  private Game game;
+  private SimulationReport report;
+  private StringBuilder line;
+
+  public Table(int numberOfPlayers, int numberOfHumans, long seed) {
+    if (numberOfPlayers < Game.MIN_PLAYERS || numberOfPlayers > Game.MAX_PLAYERS
+        || numberOfHumans < 1 || numberOfHumans > numberOfPlayers) {
+      throw new IllegalArgumentException("Players must be " + Game.MIN_PLAYERS + "-" + Game.MAX_PLAYERS
+        + " and humans 1-players.");
+    }
+    this.numberOfPlayers = numberOfPlayers;
+    this.seed            = seed;
+    connections          = new TableServer.Connection[numberOfHumans];
+    game                 = new Game(new GameRandom(seed));
+    report               = new SimulationReport();
+    line                 = new StringBuilder();
+  }
+
+  /* Seat a remote player and return its seat, or -1 if the table is full. */
+  public synchronized int sit(TableServer.Connection connection) {
+    if (numberOfConnections == connections.length) {
+      return -1;
+    }
+    connections[numberOfConnections] = connection;
+    return numberOfConnections++;
+  }
+
+  public synchronized boolean isFull()
+    { return numberOfConnections == connections.length; }
+
+  /* Play until every remote player has left. Humans sit in the first
+     seats, CPU players in the others. */
+  @Override
+  public void run() {
+    for (int seat = 0; seat < numberOfPlayers; seat++) {
+      game.addPlayer(seat < connections.length ? Player.Type.HUMAN : Player.Type.CPU, "");
+    }
+    game.setListener(this);
+    for (int seat = 0; seat < connections.length; seat++) {
+      connections[seat].send("SEAT " + (seat + 1) + " " + numberOfPlayers + " " + seed);
+    }
+    while (isOpen()) {
+      game.play(numberOfPlayers, 1, report);
+    }
+  }
+
+  @Override
+  public void holeCardsDealt(Game game) {
+    ArrayList<Player> players = game.getPlayers();
+    for (int seat = 0; seat < connections.length; seat++) {
+      ArrayList<Card> hand = players.get(seat).getHand();
+      connections[seat].send("GAME " + game.getGameNumber());
+      connections[seat].send("HOLE " + hand.get(0).toCode() + " " + hand.get(1).toCode());
+    }
+  }
+
+  @Override
+  public void communityCardsDealt(Game game, int numberOfCards) {
+    ArrayList<Card> communityCards = game.getCommunityCards();
+    line.setLength(0);
+    line.append(communityCards.size() == 3 ? "FLOP" : communityCards.size() == 4 ? "TURN" : "RIVER");
+    for (int i = communityCards.size() - numberOfCards; i < communityCards.size(); i++) {
+      line.append(' ').append(communityCards.get(i).toCode());
+    }
+    sendToAll(line.toString());
+  }
+
+  @Override
+  public boolean staysIn(Game game, int seat)
+    { return "STAY".equals(connections[seat].act(DECISION_TIMEOUT_MILLIS)); }
+
+  @Override
+  public void folded(Game game, int seat)
+    { sendToAll("FOLD " + (seat + 1)); }
+
+  @Override
+  public void showdown(Game game) {
+    ArrayList<Player> players = game.getPlayers();
+    for (int seat = 0; seat < players.size(); seat++) {
+      if (!players.get(seat).hasFolded()) {
+        ArrayList<Card> hand = players.get(seat).getHand();
+        sendToAll("SHOW " + (seat + 1) + " " + hand.get(0).toCode() + " " + hand.get(1).toCode()
+          + " " + game.getStrength(seat));
+      }
+    }
+    line.setLength(0);
+    line.append("WIN");
+    for (int winner : game.getWinners()) {
+      line.append(' ').append(winner + 1);
+    }
+    sendToAll(line.toString());
+    for (TableServer.Connection connection : connections) {
+      connection.flush();
+    }
+  }
+
+  private boolean isOpen() {
+    for (TableServer.Connection connection : connections) {
+      if (!connection.isClosed()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void sendToAll(String message) {
+    for (TableServer.Connection connection : connections) {
+      connection.send(message);
+    }
+  }
+
+}
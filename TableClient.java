@@ -0,0 +1,191 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* TableClient.java */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Load test for a TableServer: opens many connections at once, each on
+    its own (virtual, on Java 21) thread, plays a number of games on each
+    and reports throughput and how long games took from GAME to WIN.
+
+    Every client stays in on the turn with a pair or a card of queen or
+    higher, and folds otherwise.
+
+    Usage: java TableClient [--host=HOST] [--port=N] [--connections=N]
+             [--players=N] [--humans=N] [--games=N]
+*/
+
+public final class TableClient implements Runnable {
+
+  private static final String USAGE =
+      "Usage: java TableClient [--host=HOST] [--port=N] [--connections=N]"
+    + " [--players=N] [--humans=N] [--games=N]\n"
+    + "  Humans must divide connections, so that every table fills up.";
+
+  private String host;
+  private int port;
+  private int numberOfPlayers;
+  private int numberOfHumans;
+  private int numberOfGames;
+  private LatencyHistogram gameNanos;
+  private AtomicLong gamesPlayed;
+  private String error;
+
+  private TableClient(String host, int port, int numberOfPlayers, int numberOfHumans, int numberOfGames,
+      AtomicLong gamesPlayed) {
+    this.host            = host;
+    this.port            = port;
+    this.numberOfPlayers = numberOfPlayers;
+    this.numberOfHumans  = numberOfHumans;
+    this.numberOfGames   = numberOfGames;
+    this.gamesPlayed     = gamesPlayed;
+    gameNanos            = new LatencyHistogram();
+  }
+
+  public static void main(String[] args) throws Exception {
+    String host         = "localhost";
+    int port            = TableServer.DEFAULT_PORT;
+    int numberOfClients = 100;
+    int numberOfPlayers = 8;
+    int numberOfHumans  = 1;
+    int numberOfGames   = 100;
+
+    try {
+      for (String arg : args) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.startsWith("--host="))             { host            = value; }
+        else if (arg.startsWith("--port="))        { port            = Integer.parseInt(value); }
+        else if (arg.startsWith("--connections=")) { numberOfClients = Integer.parseInt(value); }
+        else if (arg.startsWith("--players="))     { numberOfPlayers = Integer.parseInt(value); }
+        else if (arg.startsWith("--humans="))      { numberOfHumans  = Integer.parseInt(value); }
+        else if (arg.startsWith("--games="))       { numberOfGames   = Integer.parseInt(value); }
+        else {
+          System.out.println("Unknown argument: " + arg);
+          System.out.println(USAGE);
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException e) {
+      System.out.println("Invalid number: " + e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+    if (numberOfHumans < 1 || numberOfClients % numberOfHumans != 0) {
+      System.out.println(USAGE);
+      return;
+    }
+
+    AtomicLong gamesPlayed = new AtomicLong();
+    ArrayList<TableClient> clients = new ArrayList<>();
+    ArrayList<Future<?>> results = new ArrayList<>();
+    ExecutorService threads = TableServer.newThreadPerTaskExecutor();
+    long start = System.nanoTime();
+    for (int i = 0; i < numberOfClients; i++) {
+      TableClient client = new TableClient(host, port, numberOfPlayers, numberOfHumans, numberOfGames, gamesPlayed);
+      clients.add(client);
+      results.add(threads.submit(client));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    threads.shutdown();
+
+    LatencyHistogram gameNanos = new LatencyHistogram();
+    int numberOfErrors = 0;
+    for (TableClient client : clients) {
+      gameNanos.add(client.gameNanos);
+      if (client.error != null) {
+        if (numberOfErrors++ == 0) {
+          System.out.println("First error: " + client.error);
+        }
+      }
+    }
+    System.out.printf("%d connections, %d players with %d humans per table, %d games each%n",
+      numberOfClients, numberOfPlayers, numberOfHumans, numberOfGames);
+    System.out.printf("%d games in %.2f s: %.0f games/s (seen by every human at the table)%n",
+      gamesPlayed.get(), seconds, gamesPlayed.get() / seconds);
+    System.out.printf("Game time: mean %.0f us  p50 %d us  p99 %d us  max %d us%n",
+      gameNanos.getMean() / 1000, gameNanos.getPercentile(50) / 1000,
+      gameNanos.getPercentile(99) / 1000, gameNanos.getMax() / 1000);
+    System.out.println("Connections with errors: " + numberOfErrors);
+  }
+
+  /* Play numberOfGames games on one connection. */
+  @Override
+  public void run() {
+    try (Socket socket = new Socket(host, port)) {
+      socket.setTcpNoDelay(true);
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+        StandardCharsets.US_ASCII));
+      BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+        StandardCharsets.US_ASCII));
+      out.write("JOIN " + numberOfPlayers + " " + numberOfHumans + "\n");
+      out.flush();
+
+      int games = 0;
+      long gameStart = 0;
+      boolean staysIn = false;
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] words = line.split(" ");
+        switch (words[0]) {
+          case "GAME":
+            gameStart = System.nanoTime();
+            break;
+          case "HOLE":
+            staysIn = wouldStay(Card.parse(words[1]), Card.parse(words[2]));
+            break;
+          case "ACT":
+            out.write(staysIn ? "STAY\n" : "FOLD\n");
+            out.flush();
+            break;
+          case "WIN":
+            if (games < numberOfGames) {
+              gameNanos.record(System.nanoTime() - gameStart);
+              gamesPlayed.incrementAndGet();
+              if (++games == numberOfGames) {
+                out.write("QUIT\n");
+                out.flush();
+              }
+            }
+            break;
+          case "ERROR":
+            error = line;
+            return;
+          case "BYE":
+            return;
+          default:
+            break;
+        }
+      }
+      if (games < numberOfGames) {
+        error = "Connection closed after " + games + " games.";
+      }
+    }
+    catch (IOException e) {
+      error = e.toString();
+    }
+  }
+
+  private static boolean wouldStay(Card card1, Card card2) {
+    return card1.getValue() == card2.getValue()
+      || Math.max(card1.getValue(), card2.getValue()) >= 12;
+  }
+
+}
@@ -0,0 +1,271 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* TableServer.java */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Local TCP server hosting any number of Tables for HUMAN players.
+
+    Every connection is read on a thread of its own and every table plays
+    on a thread of its own. On Java 21 or later those are virtual threads,
+    so thousands of tables cost little more than their Games; earlier
+    Javas get a cached pool of platform threads.
+
+    The protocol is one command per line, words separated by spaces, and
+    cards written like Card.parse() reads them ("Ah", "Td"). Seats are
+    numbered from 1.
+
+    Client to server:
+      JOIN <players> [humans]  sit at a table of 2-8 players, of which
+                               humans (default 1) are remote players;
+                               the table starts once they have all joined
+      STAY | FOLD              answer to ACT
+      QUIT                     leave the table and close the connection
+    Server to client:
+      SEAT <seat> <players> <seed>  the table has started; its games can be
+                                    dealt again with TexasHoldEm --seed --game
+      GAME <number>                 a new game
+      HOLE <card> <card>            your hole cards
+      FLOP <card> <card> <card>
+      TURN <card>
+      RIVER <card>
+      ACT                           stay in or fold, within 30 seconds
+      FOLD <seat>
+      SHOW <seat> <card> <card> <strength>  a hand at the showdown,
+                                            strength 1-7462, higher wins
+      WIN <seat> ...                the game is over
+      ERROR <message>
+      BYE
+
+    Usage: java TableServer [port]
+*/
+
+public final class TableServer {
+
+  public static final int DEFAULT_PORT = 7216;
+
+  private ExecutorService threads;
+  private HashMap<Integer, Table> waitingTables; /* by players * 16 + humans */
+  private Random random;
+
+  public TableServer() {
+    threads       = newThreadPerTaskExecutor();
+    waitingTables = new HashMap<>();
+    random        = new Random();
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    try (ServerSocket serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())) {
+      System.out.println("Listening on " + serverSocket.getLocalSocketAddress()
+        + (hasVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+      new TableServer().serve(serverSocket);
+    }
+  }
+
+  /* Accept connections until serverSocket is closed. */
+  public void serve(ServerSocket serverSocket) throws IOException {
+    while (true) {
+      Socket socket = serverSocket.accept();
+      threads.execute(new Connection(this, socket));
+    }
+  }
+
+  /* Return an executor running every task on a new virtual thread, or
+     a cached thread pool before Java 21. */
+  public static ExecutorService newThreadPerTaskExecutor() {
+    if (hasVirtualThreads()) {
+      try {
+        return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (ReflectiveOperationException e) {
+        /* Fall back to platform threads. */
+      }
+    }
+    return Executors.newCachedThreadPool();
+  }
+
+  private static boolean hasVirtualThreads()
+    { return Runtime.version().feature() >= 21; }
+
+  /* Seat connection at a table waiting for players, or at a new one, and
+     start the table once it is full. */
+  private synchronized void join(Connection connection, int numberOfPlayers, int numberOfHumans) {
+    int key = numberOfPlayers * 16 + numberOfHumans;
+    Table table = waitingTables.get(key);
+    if (table == null) {
+      table = new Table(numberOfPlayers, numberOfHumans, random.nextLong());
+      waitingTables.put(key, table);
+    }
+    table.sit(connection);
+    if (table.isFull()) {
+      waitingTables.remove(key);
+      threads.execute(table);
+    }
+  }
+
+  /* One remote player. Its thread reads commands; its table's thread
+     sends the game and waits for decisions with act(). Writes take a
+     ReentrantLock rather than synchronized, which would pin a virtual
+     thread to its carrier while it blocks on the socket. */
+  public static final class Connection implements Runnable {
+
+    private TableServer server;
+    private Socket socket;
+    private BufferedWriter out;
+    private ReentrantLock outLock;
+    private LinkedBlockingQueue<String> decisions;
+    private volatile boolean isActing;
+    private volatile boolean isClosed;
+
+    private Connection(TableServer server, Socket socket) {
+      this.server = server;
+      this.socket = socket;
+      outLock     = new ReentrantLock();
+      decisions   = new LinkedBlockingQueue<>();
+    }
+
+    @Override
+    public void run() {
+      try {
+        socket.setTcpNoDelay(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.US_ASCII));
+        outLock.lock();
+        try {
+          out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+        }
+        finally {
+          outLock.unlock();
+        }
+        boolean hasJoined = false;
+        String request;
+        while ((request = in.readLine()) != null) {
+          String[] words = request.trim().split(" +");
+          String command = words[0].toUpperCase();
+          if (command.equals("QUIT")) {
+            send("BYE");
+            flush();
+            break;
+          }
+          else if (command.equals("JOIN") && !hasJoined) {
+            try {
+              int numberOfPlayers = Integer.parseInt(words[1]);
+              int numberOfHumans = (words.length > 2) ? Integer.parseInt(words[2]) : 1;
+              server.join(this, numberOfPlayers, numberOfHumans);
+              hasJoined = true;
+            }
+            catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+              send("ERROR JOIN <players 2-8> [humans 1-players]");
+              flush();
+            }
+          }
+          else if ((command.equals("STAY") || command.equals("FOLD")) && isActing) {
+            decisions.offer(command);
+          }
+          else {
+            send("ERROR Unexpected command: " + request);
+            flush();
+          }
+        }
+      }
+      catch (IOException e) {
+        /* The player is gone, as if it quit. */
+      }
+      finally {
+        close();
+      }
+    }
+
+    /* Queue a line for the player, sent at the next flush(). */
+    public void send(String line) {
+      outLock.lock();
+      try {
+        if (!isClosed && out != null) {
+          out.write(line);
+          out.write('\n');
+        }
+      }
+      catch (IOException e) {
+        close();
+      }
+      finally {
+        outLock.unlock();
+      }
+    }
+
+    public void flush() {
+      outLock.lock();
+      try {
+        if (!isClosed && out != null) {
+          out.flush();
+        }
+      }
+      catch (IOException e) {
+        close();
+      }
+      finally {
+        outLock.unlock();
+      }
+    }
+
+    /* Send ACT and return the player's STAY or FOLD, or null if there was
+       none within specified time or the player left. */
+    public String act(long timeoutMillis) {
+      isActing = true;
+      decisions.clear();
+      if (isClosed) {
+        isActing = false;
+        return null;
+      }
+      send("ACT");
+      flush();
+      try {
+        String decision = decisions.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        return (decision == null || decision.equals("QUIT")) ? null : decision;
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      finally {
+        isActing = false;
+      }
+    }
+
+    public boolean isClosed()
+      { return isClosed; }
+
+    private void close() {
+      isClosed = true;
+      decisions.offer("QUIT");
+      try {
+        socket.close();
+      }
+      catch (IOException e) {
+        /* Nothing left to do. */
+      }
+    }
+
+  }
+
+}
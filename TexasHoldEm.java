@@ -5,11 +5,205 @@
 
 /* TexasHoldem.java */
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
 public final class TexasHoldEm {
 
-  public static void main(String[] args) {
-    Game game = new Game();
-    game.start();
+  private static final long CHECKPOINT_PERIOD = 30; /* seconds */
+
+  private static final String USAGE =
+      "Usage: java TexasHoldEm [--players=N --games=N [--seed=N]"
+    + " [--verbosity=0|1] [--threads=N] [--classes] [--history=FILE] [--metrics[=SECONDS]]\n"
+    + "  [--checkpoint=FILE [--resume]] [--game=N] [--stacks=N,N,...]\n"
+    + "  [--preflop=FILE]]\n"
+    + "  Without arguments the number of players and games are read from the console.\n"
+    + "  --verbosity=0 prints only the Simulation Report (default),\n"
+    + "  --verbosity=1 also prints every game (always on one thread),\n"
+    + "  --classes also prints how often each exact hand class won,\n"
+    + "  --history records every game to a binary hand history file,\n"
+    + "  --metrics registers the SimulationMetrics MBean and prints its summary\n"
+    + "  to standard error every SECONDS (default 10, 0 for JMX only),\n"
+    + "  --checkpoint saves the simulation's progress to FILE every "
+    + CHECKPOINT_PERIOD + " seconds,\n"
+    + "  --resume continues the simulation saved in FILE (its players, games and seed),\n"
+    + "  --game=N deals and prints only game N (from 0) of the simulation with this seed,\n"
+    + "  --stacks plays for chips: seat i starts every game with the i-th stack (repeated\n"
+    + "  for more seats) and everyone still in after the turn goes all-in,\n"
+    + "  --preflop players decide from the PreflopTable in FILE instead of the river\n"
+    + "  equity (pass it again with --resume).";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      Game game = new Game();
+      game.start();
+      return;
+    }
+
+    int numberOfPlayers = 0;
+    long numberOfGames  = 0;
+    int verbosity       = 0;
+    int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    long seed           = new Random().nextLong();
+    boolean hasSeed     = false;
+    boolean printHandClasses = false;
+    String historyFile       = null;
+    long metricsPeriod       = -1;
+    String checkpointFile    = null;
+    boolean resume           = false;
+    long gameNumber          = -1;
+    long[] stacks            = null;
+    String preflopFile       = null;
+
+    try {
+      for (String arg : args) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.startsWith("--players="))        { numberOfPlayers = Integer.parseInt(value); }
+        else if (arg.startsWith("--games="))     { numberOfGames   = Long.parseLong(value); }
+        else if (arg.startsWith("--seed="))      { seed            = Long.parseLong(value); hasSeed = true; }
+        else if (arg.startsWith("--verbosity=")) { verbosity       = Integer.parseInt(value); }
+        else if (arg.startsWith("--threads="))   { numberOfThreads = Integer.parseInt(value); }
+        else if (arg.equals("--classes"))        { printHandClasses = true; }
+        else if (arg.startsWith("--history="))   { historyFile = value; }
+        else if (arg.equals("--metrics"))        { metricsPeriod = 10; }
+        else if (arg.startsWith("--metrics="))   { metricsPeriod = Long.parseLong(value); }
+        else if (arg.startsWith("--checkpoint=")) { checkpointFile = value; }
+        else if (arg.equals("--resume"))         { resume = true; }
+        else if (arg.startsWith("--game="))      { gameNumber = Long.parseLong(value); }
+        else if (arg.startsWith("--stacks="))    { stacks = parseStacks(value); }
+        else if (arg.startsWith("--preflop="))   { preflopFile = value; }
+        else {
+          System.out.println("Unknown argument: " + arg);
+          System.out.println(USAGE);
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException e) {
+      System.out.println("Invalid number: " + e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+    catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+
+    SimulationCheckpoint checkpoint = null;
+    if (resume) {
+      if (checkpointFile == null) {
+        System.out.println("--resume needs --checkpoint=FILE.");
+        System.out.println(USAGE);
+        return;
+      }
+      checkpoint = SimulationCheckpoint.read(Paths.get(checkpointFile));
+      if ((numberOfPlayers != 0 && numberOfPlayers != checkpoint.getNumberOfPlayers())
+          || (numberOfGames != 0 && numberOfGames != checkpoint.getNumberOfGames())
+          || (hasSeed && seed != checkpoint.getSeed())
+          || (stacks != null && !Arrays.equals(stacks, checkpoint.getStacks()))) {
+        System.out.println(checkpointFile + " is a simulation of " + checkpoint.getNumberOfPlayers()
+          + " players, " + checkpoint.getNumberOfGames() + " games and seed " + checkpoint.getSeed()
+          + ((checkpoint.getStacks() != null) ? " with stacks " + Arrays.toString(checkpoint.getStacks()) : "")
+          + ".");
+        return;
+      }
+      numberOfPlayers = checkpoint.getNumberOfPlayers();
+      numberOfGames   = checkpoint.getNumberOfGames();
+      seed            = checkpoint.getSeed();
+      stacks          = checkpoint.getStacks();
+    }
+
+    if (gameNumber >= 0 && numberOfGames == 0) {
+      numberOfGames = gameNumber + 1;
+    }
+    if (numberOfPlayers < Game.MIN_PLAYERS || numberOfPlayers > Game.MAX_PLAYERS || numberOfGames < 1) {
+      System.out.println("Players must be " + Game.MIN_PLAYERS + "-" + Game.MAX_PLAYERS
+        + " and games must be at least 1.");
+      System.out.println(USAGE);
+      return;
+    }
+
+    /* PreflopStrategy keeps no state, so every Game shares one. */
+    Supplier<Strategy[]> strategies = null;
+    if (preflopFile != null) {
+      Strategy[] preflop = { new PreflopStrategy(PreflopTable.load(Paths.get(preflopFile))) };
+      strategies = () -> preflop;
+    }
+
+    if (gameNumber >= 0) {
+      PrintWriter gameOutput = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+      Simulation simulation = new Simulation(numberOfPlayers, numberOfGames, seed);
+      simulation.setStacks(stacks);
+      simulation.setStrategies(strategies);
+      simulation.playGame(gameNumber, gameOutput);
+      gameOutput.flush();
+      return;
+    }
+
+    PrintWriter gameOutput = null;
+    if (verbosity > 0) {
+      gameOutput = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+      numberOfThreads = 1;
+    }
+
+    Simulation simulation = (checkpoint != null)
+      ? Simulation.resume(checkpoint)
+      : new Simulation(numberOfPlayers, numberOfGames, seed);
+    simulation.setStacks(stacks);
+    simulation.setStrategies(strategies);
+    if (checkpointFile != null) {
+      simulation.setCheckpoint(Paths.get(checkpointFile), CHECKPOINT_PERIOD);
+    }
+    SimulationMetrics metrics = null;
+    if (metricsPeriod >= 0) {
+      metrics = new SimulationMetrics();
+      metrics.register();
+      if (metricsPeriod > 0) {
+        metrics.startDump(System.err, metricsPeriod);
+      }
+      simulation.setMetrics(metrics);
+    }
+    SimulationReport report;
+    if (historyFile != null) {
+      try (HandHistoryWriter handHistory = new HandHistoryWriter(Paths.get(historyFile), resume, stacks)) {
+        simulation.setHandHistory(handHistory);
+        report = simulation.run(numberOfThreads, gameOutput);
+      }
+    }
+    else {
+      report = simulation.run(numberOfThreads, gameOutput);
+    }
+    if (gameOutput != null) {
+      gameOutput.flush();
+    }
+    if (metrics != null) {
+      metrics.stopDump();
+      System.err.print(metrics.getSummary());
+    }
+    report.print();
+    if (printHandClasses) {
+      report.printHandClasses();
+    }
+  }
+
+  /* Parse comma separated stacks of at least 1 chip. */
+  private static long[] parseStacks(String value) {
+    String[] words = value.split(",");
+    long[] stacks = new long[words.length];
+    for (int i = 0; i < words.length; i++) {
+      stacks[i] = Long.parseLong(words[i].trim());
+      if (stacks[i] < 1) {
+        throw new IllegalArgumentException("Stacks must be at least 1 chip.");
+      }
+    }
+    return stacks;
   }
 
 }
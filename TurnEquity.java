@@ -0,0 +1,162 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* TurnEquity.java */
+
+/*
+    River equity of every player still in a game on the turn, against the
+    other players still in it.
+
+    Every card that is not on the board or in anyone's hand can come on
+    the river (44 heads-up, 32 with eight players), and the pot is split
+    between the strongest hands. Equity is a player's average share of the
+    pot over those cards. Shares are counted in whole units of a pot that
+    divides evenly between any number of winners, so the result is exact.
+
+    Each player's 7-card value state and strength are computed once per
+    river value (13 reads of one NEXT row). River cards that cannot add to
+    a flush only matter through their value, so they are scored once per
+    value; the flush table is only read when the board has a suit with
+    three or more cards. All players are scored in the same pass, and the
+    arrays are allocated once, so a call allocates nothing.
+*/
+
+public final class TurnEquity {
+
+  private static final int NUMBER_OF_VALUES = 13;
+  private static final int POT = 840; /* splits evenly between 1 to 8 winners */
+  private static final int[] SHARES = { 0, POT, POT / 2, POT / 3, POT / 4, POT / 5, POT / 6, POT / 7, POT / 8 };
+
+  private int[] liveSeats;
+  private int[] states;      /* 7-card value state by seat and river value */
+  private int[] strengths;   /* strength without flushes, same layout */
+  private long[] cards;      /* 6 cards of each seat */
+  private int[] riverStrengths;
+  private long[] shares;     /* units of POT won over all river cards */
+  private int numberOfRiverCards;
+  private int numberOfEvaluations; /* in the last call to calculate() */
+
+  public TurnEquity(int maxSeats) {
+    if (maxSeats >= SHARES.length) {
+      throw new IllegalArgumentException("At most " + (SHARES.length - 1) + " seats.");
+    }
+    liveSeats      = new int[maxSeats];
+    states         = new int[maxSeats * NUMBER_OF_VALUES];
+    strengths      = new int[maxSeats * NUMBER_OF_VALUES];
+    cards          = new long[maxSeats];
+    riverStrengths = new int[maxSeats];
+    shares         = new long[maxSeats];
+  }
+
+  /* Compute the equity of every player that has not folded. view must
+     be on the turn: four community cards and each seat's hole cards. */
+  public void calculate(Strategy.View view) {
+    long board = view.getBoard();
+    int boardState = HandEvaluator.addCards(0, board);
+    long deadCards = board;
+    int numberOfLiveSeats = 0;
+    numberOfEvaluations = 0;
+    for (int seat = 0; seat < view.getNumberOfPlayers(); seat++) {
+      long holeCards = view.getHoleCards(seat);
+      shares[seat] = 0;
+      deadCards |= holeCards;
+      if (view.hasFolded(seat)) {
+        continue;
+      }
+      liveSeats[numberOfLiveSeats++] = seat;
+      cards[seat] = board | holeCards;
+      int state = HandEvaluator.addCards(boardState, holeCards);
+      for (int value = 0; value < NUMBER_OF_VALUES; value++) {
+        int riverState = HandEvaluator.addValue(state, value);
+        states[seat * NUMBER_OF_VALUES + value]    = riverState;
+        strengths[seat * NUMBER_OF_VALUES + value] = HandEvaluator.evaluate(riverState, CardSet.EMPTY, 0);
+      }
+      numberOfEvaluations += NUMBER_OF_VALUES;
+    }
+
+    /* A river card can only complete a flush in a suit with 2 or more
+       board cards, for a player holding the rest of the flush. Cards of
+       such suits are scored on their own. Any other card leaves the
+       flush suit as it was on the turn and scores like every card of its
+       value, so those are scored once per value with their count. */
+    int flushSuits = 0;    /* bit n set if a river card of suit n can make a flush */
+    int turnFlushSuit = 0; /* suit with 3 or more board cards, 0 if none */
+    for (int suit = 1; suit < Card.SUITS.length; suit++) {
+      int boardCards = Integer.bitCount(CardSet.getSuitMask(board, suit));
+      if (boardCards >= 3) {
+        turnFlushSuit = suit;
+      }
+      for (int i = 0; i < numberOfLiveSeats && boardCards >= 2; i++) {
+        if (Integer.bitCount(CardSet.getSuitMask(cards[liveSeats[i]], suit)) + 1 >= 5) {
+          flushSuits |= 1 << suit;
+        }
+      }
+    }
+
+    numberOfRiverCards = 0;
+    for (int value = 0; value < NUMBER_OF_VALUES; value++) {
+      int numberOfPlainCards = 0;
+      for (int suit = 1; suit < Card.SUITS.length; suit++) {
+        long river = CardSet.getBit((suit - 1) * NUMBER_OF_VALUES + value);
+        if ((deadCards & river) != 0) {
+          continue;
+        }
+        numberOfRiverCards++;
+        if ((flushSuits & (1 << suit)) != 0) {
+          addRiver(numberOfLiveSeats, value, river, suit, 1);
+        }
+        else {
+          numberOfPlainCards++;
+        }
+      }
+      if (numberOfPlainCards > 0) {
+        addRiver(numberOfLiveSeats, value, CardSet.EMPTY, turnFlushSuit, numberOfPlainCards);
+      }
+    }
+  }
+
+  /* Return share of the pot (0-1) seat wins on average over the river
+     cards, as of the last call to calculate(). 0 for folded seats. */
+  public double getEquity(int seat)
+    { return (double)shares[seat] / ((long)POT * numberOfRiverCards); }
+
+  /* Return number of hands scored by the last call to calculate(). */
+  public int getNumberOfEvaluations()
+    { return numberOfEvaluations; }
+
+  /* Split the pot of count river cards of a value, whose masks are
+     river (empty if it cannot make a flush) and with flushSuit the only
+     suit that can flush. */
+  private void addRiver(int numberOfLiveSeats, int value, long river, int flushSuit, int count) {
+    int highestStrength = 0;
+    int numberOfWinners = 0;
+    if (flushSuit != 0) {
+      numberOfEvaluations += numberOfLiveSeats;
+    }
+    for (int i = 0; i < numberOfLiveSeats; i++) {
+      int seat = liveSeats[i];
+      int strength = strengths[seat * NUMBER_OF_VALUES + value];
+      if (flushSuit != 0) {
+        strength = HandEvaluator.evaluate(states[seat * NUMBER_OF_VALUES + value],
+          cards[seat] | river, flushSuit);
+      }
+      riverStrengths[i] = strength;
+      if (strength > highestStrength) {
+        highestStrength = strength;
+        numberOfWinners = 1;
+      }
+      else if (strength == highestStrength) {
+        numberOfWinners++;
+      }
+    }
+    int share = count * SHARES[numberOfWinners];
+    for (int i = 0; i < numberOfLiveSeats; i++) {
+      if (riverStrengths[i] == highestStrength) {
+        shares[liveSeats[i]] += share;
+      }
+    }
+  }
+
+}
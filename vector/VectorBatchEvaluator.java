@@ -0,0 +1,125 @@
+/**
+ *
+ * @author __MadHatter (alias used on https://www.reddit.com/r/dailyprogrammer)
+ */
+
+/* VectorBatchEvaluator.java */
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+    BatchEvaluator kernel using the jdk.incubator.vector API, one hand per
+    lane.
+
+    For each card position the card indices of a vector of hands are split
+    into suit and value with compares, the value states are advanced with a
+    gather from HandEvaluator's NEXT table, and the cards are collected in
+    two ints per lane laid out like the low and high half of a CardSet,
+    next to two more that count the cards of each suit the same way.
+    Seven cards hold at most one suit with five or more cards, so the
+    suit lane of each hand that has one is picked out with shifts and
+    masks and all flushes are looked up with a single gather. It does not
+    use masked blends: C2 (up to at least JDK 21.0.1) miscompiles the
+    blends that used to pick the lane, returning wrong strengths or
+    crashing on batches with many flushes (see BatchEvaluator --check).
+
+    The work on one vector of hands is kept in one small method: C2 stops
+    inlining Vector API calls in large methods and then boxes every vector.
+
+    Only loaded by BatchEvaluator, through reflection, so that the rest of
+    the program runs without the incubator module. It is kept in its own
+    directory so that javac *.java builds the rest without the module;
+    compile it separately, into the same (default) package:
+
+      javac --add-modules jdk.incubator.vector -encoding UTF-8 -cp . -d . vector/VectorBatchEvaluator.java
+*/
+
+final class VectorBatchEvaluator implements BatchEvaluator.Kernel {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  private static final int VALUE_MASK  = 0x1FFF;
+  private static final int FLUSH_BIAS  = 3 | 3 << 16;
+  private static final int FLUSH_FLAGS = 1 | 1 << 16;
+
+  private static final int[] NEXT    = HandEvaluator.getNextTable();
+  private static final int[] VALUES  = toInts(HandEvaluator.getValueTable());
+  private static final int[] FLUSHES = toInts(HandEvaluator.getFlushTable());
+
+  /* Gather indices of one vector, since gathers take their index map as
+     an array. One per thread, as the kernel is shared. */
+  private static final ThreadLocal<int[]> INDICES =
+    ThreadLocal.withInitial(() -> new int[SPECIES.length()]);
+
+  @Override
+  public void evaluate(int[] cards, int numberOfCards, int numberOfHands, int[] strengths) {
+    int[] indices = INDICES.get();
+    int last = numberOfHands - numberOfHands % SPECIES.length();
+    for (int h = 0; h < last; h += SPECIES.length()) {
+      evaluateVector(cards, numberOfCards, numberOfHands, h, strengths, indices);
+    }
+    BatchEvaluator.ScalarKernel.evaluate(cards, numberOfCards, numberOfHands, last, numberOfHands, strengths);
+  }
+
+  /* Score hands [h, h + SPECIES.length()). */
+  private static void evaluateVector(int[] cards, int numberOfCards, int numberOfHands, int h,
+      int[] strengths, int[] indices) {
+    IntVector states    = IntVector.zero(SPECIES);
+    IntVector lowSuits  = states; /* clubs in bits 0-12, diamonds in 16-28 */
+    IntVector highSuits = states; /* hearts in bits 0-12, spades in 16-28 */
+    IntVector lowCounts  = states; /* number of clubs and diamonds, as above */
+    IntVector highCounts = states;
+
+    for (int i = 0; i < numberOfCards; i++) {
+      IntVector index = IntVector.fromArray(SPECIES, cards, i * numberOfHands + h);
+      VectorMask<Integer> above13 = index.compare(VectorOperators.GE, 13);
+      VectorMask<Integer> above26 = index.compare(VectorOperators.GE, 26);
+      VectorMask<Integer> above39 = index.compare(VectorOperators.GE, 39);
+      IntVector value = index.sub(13, above13).sub(13, above26).sub(13, above39);
+
+      states.mul(13).add(value).intoArray(indices, 0);
+      states = IntVector.fromArray(SPECIES, NEXT, 0, indices, 0);
+
+      VectorMask<Integer> upperLane = above13.andNot(above26).or(above39);
+      VectorMask<Integer> lowHalf = above26.not();
+      IntVector bit = IntVector.broadcast(SPECIES, 1)
+        .lanewise(VectorOperators.LSHL, value.add(16, upperLane));
+      IntVector count = IntVector.broadcast(SPECIES, 1).blend(1 << 16, upperLane);
+      lowSuits   = lowSuits.lanewise(VectorOperators.OR, bit, lowHalf);
+      highSuits  = highSuits.lanewise(VectorOperators.OR, bit, above26);
+      lowCounts  = lowCounts.add(count, lowHalf);
+      highCounts = highCounts.add(count, above26);
+    }
+
+    states.intoArray(indices, 0);
+    IntVector strength = IntVector.fromArray(SPECIES, VALUES, 0, indices, 0);
+
+    /* A suit has a flush if its count plus 3 reaches 8 (counts are at
+       most 7), which gives 1 in bit 3 of its count's field. Spreading
+       that bit over the 13 value bits keeps only the flush suit's cards,
+       and folding the four fields together leaves them in bits 0-12. */
+    IntVector lowFlush  = lowCounts.add(FLUSH_BIAS).lanewise(VectorOperators.LSHR, 3).and(FLUSH_FLAGS)
+      .mul(VALUE_MASK).and(lowSuits);
+    IntVector highFlush = highCounts.add(FLUSH_BIAS).lanewise(VectorOperators.LSHR, 3).and(FLUSH_FLAGS)
+      .mul(VALUE_MASK).and(highSuits);
+    IntVector flush = lowFlush.or(highFlush);
+    flush = flush.or(flush.lanewise(VectorOperators.LSHR, 16)).and(VALUE_MASK);
+
+    /* FLUSHES[0] is 0, so lanes without a flush keep their strength. */
+    flush.intoArray(indices, 0);
+    strength = strength.max(IntVector.fromArray(SPECIES, FLUSHES, 0, indices, 0));
+    strength.intoArray(strengths, h);
+  }
+
+  private static int[] toInts(short[] table) {
+    int[] ints = new int[table.length];
+    for (int i = 0; i < table.length; i++) {
+      ints[i] = table[i];
+    }
+    return ints;
+  }
+
+}